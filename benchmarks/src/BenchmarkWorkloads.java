@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import bench.Workload;
+
+/**
+ * BENCHMARK WORKLOADS
+ *
+ * Opérations mesurées par les benchmarks JMH du paquetage bench (voir
+ * bench.Workload). Elles sont dans le paquetage par défaut pour accéder aux
+ * classes du jeu, y compris SearchWorker.
+ *
+ * Les positions sont des milieux de partie enregistrés (coups au format du
+ * serveur), obtenus par des parties à profondeur fixe après quatre coups
+ * aléatoires.
+ */
+public class BenchmarkWorkloads {
+
+    static final String[][] POSITIONS = {
+            { "G4", "C1", "G1", "A2", "B4", "D1", "C2", "H4", "D2", "B6", "E9", "D7", "A3", "A9", "C7", "H2" },
+            { "G1", "A1", "C1", "I3", "I9", "H7", "E1", "D2", "A5", "C5", "H6", "E9", "F8", "H5", "E5", "D6",
+                    "B7", "F2", "G6", "A8", "A4", "A3", "B9", "E7" },
+            { "A2", "C4", "G2", "A6", "A7", "B1", "E1", "F2", "H6", "E9", "F7", "H2", "F6", "I9", "I8", "G6",
+                    "B7", "D2", "C5", "H5", "D4", "C1", "G3", "C8", "H4", "F3", "H8", "E6", "E7", "D1", "A3", "A8" },
+            { "B6", "E9", "D7", "B1", "E1", "D1", "A2", "C5", "I5", "I4", "I1", "H2", "E5", "D6", "C9", "H7",
+                    "E3", "F9", "G8", "C4", "I2", "G6", "A9", "B9", "D9", "B8", "E6", "D8", "C6", "G7", "B3", "F8",
+                    "H6", "F7", "I3", "I9", "H8", "D4", "C2", "G4" },
+    };
+
+    // État commun : la position enregistrée, le dernier coup et le joueur qui doit jouer.
+    abstract static class PositionWorkload implements Workload {
+        GlobalBoard board;
+        GlobalMove lastMove;
+        int sideToMove;
+
+        @Override
+        public void setUp(int position) {
+            board = new GlobalBoard();
+            lastMove = null;
+            sideToMove = LocalBoard.X;
+            for (String moveStr : POSITIONS[position]) {
+                lastMove = Client.parseMoveString(moveStr);
+                board.play(lastMove, sideToMove);
+                sideToMove = (sideToMove == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+            }
+        }
+    }
+
+    // Coups légaux joués à tour de rôle, dans un ordre mélangé une fois pour toutes.
+    public static class Play extends PositionWorkload {
+        static final long SEED = 20250415L;
+
+        private GlobalMove[] moves;
+        private int next;
+
+        @Override
+        public void setUp(int position) {
+            super.setUp(position);
+            ArrayList<GlobalMove> legal = board.getPossibleMoves(lastMove);
+            Collections.shuffle(legal, new Random(SEED));
+            moves = legal.toArray(new GlobalMove[0]);
+            next = 0;
+        }
+
+        @Override
+        public long run() {
+            GlobalMove move = moves[next];
+            next = (next + 1 == moves.length) ? 0 : next + 1;
+            boolean played = board.play(move, sideToMove);
+            board.undo(move);
+            return played ? 1 : 0;
+        }
+    }
+
+    public static class MoveGeneration extends PositionWorkload {
+        @Override
+        public long run() {
+            return board.getPossibleMoves(lastMove).size();
+        }
+    }
+
+    public static class Evaluation extends PositionWorkload {
+        @Override
+        public long run() {
+            return board.evaluateGlobal(sideToMove);
+        }
+    }
+
+    public static class Copy extends PositionWorkload {
+        @Override
+        public long run() {
+            return new GlobalBoard(board).getPackedBoard().getHash();
+        }
+    }
+
+    // Recherche à profondeur fixe. La table et le tri des coups sont vidés à chaque
+    // opération pour que le nombre de noeuds soit toujours le même.
+    public static class Search extends PositionWorkload {
+        static final int DEPTH = 6;
+
+        private PackedBoard searchBoard;
+        private int lastCell;
+        private TranspositionTable transpositionTable;
+        private SearchWorker worker;
+
+        @Override
+        public void setUp(int position) {
+            super.setUp(position);
+            SearchConfig config = new SearchConfig();
+            searchBoard = new PackedBoard(board.getPackedBoard());
+            lastCell = lastMove == null ? PackedBoard.NO_MOVE : lastMove.toCell();
+            transpositionTable = new TranspositionTable(2);
+            // Thread auxiliaire : pas d'horloge, seulement le drapeau d'arrêt (jamais levé)
+            worker = new SearchWorker(new TimeManager(config), false, sideToMove, config, transpositionTable);
+        }
+
+        @Override
+        public long run() {
+            transpositionTable.clear();
+            worker.getMoveOrdering().clear();
+            worker.newSearch();
+            int score = worker.minimaxAlphaBeta(searchBoard, lastCell, DEPTH, 0, Integer.MIN_VALUE,
+                    Integer.MAX_VALUE, true);
+            return worker.nodes * 31 + score;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * BENCHMARK RUNNER
+ *
+ * Lance les benchmarks avec le profileur GC de JMH : chaque résultat donne les
+ * opérations par seconde et le taux d'allocation (gc.alloc.rate.norm = octets
+ * alloués par opération).
+ *
+ * Utilisation : java bench.BenchmarkRunner [expression des benchmarks] (défaut : tous)
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "bench\\..*Benchmark";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,34 @@
+package bench;
+
+/**
+ * WORKLOAD
+ *
+ * Opération mesurée par un benchmark. JMH refuse les benchmarks du paquetage par
+ * défaut, et une classe d'un paquetage nommé ne peut pas importer les classes du
+ * jeu (GlobalBoard, PackedBoard...), qui sont dans le paquetage par défaut. Les
+ * opérations sont donc écrites dans BenchmarkWorkloads (paquetage par défaut) et
+ * les benchmarks les appellent à travers cette interface. Une seule
+ * implémentation est chargée par fork : l'appel est monomorphe et inliné par le
+ * JIT.
+ */
+public interface Workload {
+
+    /**
+     * Prépare l'état de l'opération, hors de la mesure.
+     *
+     * @param position index dans les positions enregistrées de BenchmarkWorkloads
+     */
+    void setUp(int position);
+
+    // Exécute une opération. La valeur renvoyée est consommée par le Blackhole.
+    long run();
+
+    // Charge une opération de BenchmarkWorkloads par son nom (ex. "Play").
+    static Workload load(String name) {
+        try {
+            return (Workload) Class.forName("BenchmarkWorkloads$" + name).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unknown benchmark workload: " + name, e);
+        }
+    }
+}
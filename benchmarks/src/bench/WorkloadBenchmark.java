@@ -0,0 +1,59 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * WORKLOAD BENCHMARK
+ *
+ * Une opération de BenchmarkWorkloads, choisie par son nom, depuis une position
+ * enregistrée :
+ * - Play : GlobalBoard.play puis undo, les coups légaux joués à tour de rôle;
+ * - MoveGeneration : GlobalBoard.getPossibleMoves (la liste et les GlobalMove
+ *   créés apparaissent dans le taux d'allocation);
+ * - Evaluation : GlobalBoard.evaluateGlobal pour le joueur qui doit jouer;
+ * - Copy : constructeur de copie de GlobalBoard;
+ * - Search : minimaxAlphaBeta à profondeur fixe, table et tri des coups vidés
+ *   avant chaque opération (mêmes noeuds d'une exécution à l'autre).
+ *
+ * Chaque combinaison de paramètres tourne dans son propre fork : l'appel à
+ * Workload.run reste monomorphe. Pour une seule opération : -p workload=Search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkloadBenchmark {
+
+    @Param({ "Play", "MoveGeneration", "Evaluation", "Copy", "Search" })
+    public String workload;
+
+    @Param({ "0", "1", "2", "3" })
+    public int position;
+
+    private Workload operation;
+
+    @Setup
+    public void setUp() {
+        operation = Workload.load(workload);
+        operation.setUp(position);
+    }
+
+    @Benchmark
+    public long run() {
+        return operation.run();
+    }
+}
@@ -0,0 +1,62 @@
+import java.lang.management.ManagementFactory;
+
+/**
+ * ALLOCATION BENCHMARK
+ *
+ * Vérifie que la recherche n'alloue rien par noeud : lance des recherches à
+ * profondeur fixe sur quelques positions et affiche les octets alloués par le
+ * thread courant, divisés par le nombre de noeuds visités.
+ *
+ * Utilisation : java AllocationBenchmark [profondeur] (défaut : 8)
+ */
+public class AllocationBenchmark {
+
+    // Positions de test : suites de coups au format du serveur, jouées depuis le début
+    private static final String[][] POSITIONS = {
+            {},
+            { "E5", "E4", "E2", "E6" },
+            { "E5", "D4", "A2", "B5", "E6", "E7", "E3", "F9", "H8", "E4" },
+    };
+
+    public static void main(String[] args) throws Exception {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (SearchConfig.Algorithm algorithm : SearchConfig.Algorithm.values()) {
+            SearchConfig config = new SearchConfig();
+            config.algorithm = algorithm;
+            for (int pass = 0; pass < 2; pass++) { // Le premier passage sert de préchauffage
+                long nodes = 0;
+                long bytes = 0;
+                for (String[] moves : POSITIONS) {
+                    PackedBoard board = new PackedBoard();
+                    int last = PackedBoard.NO_MOVE;
+                    int mark = LocalBoard.X;
+                    for (String moveStr : moves) {
+                        last = Client.parseMoveString(moveStr).toCell();
+                        board.play(last, mark);
+                        mark = (mark == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+                    }
+                    // Thread auxiliaire : pas d'horloge, seulement le drapeau d'arrêt (jamais levé)
+                    SearchWorker worker = new SearchWorker(new TimeManager(config), false, mark, config,
+                            new TranspositionTable(16));
+                    worker.newSearch();
+
+                    long before = threads.getThreadAllocatedBytes(threadId);
+                    int score = 0;
+                    for (int d = 1; d <= depth; d++) {
+                        score = worker.searchDepth(board, last, d, score);
+                    }
+                    bytes += threads.getThreadAllocatedBytes(threadId) - before;
+                    nodes += worker.nodes;
+                }
+                if (pass == 1) {
+                    System.out.printf("%s depth %d: %d nodes, %d bytes allocated, %.4f bytes/node%n", algorithm,
+                            depth, nodes, bytes, (double) bytes / nodes);
+                }
+            }
+        }
+    }
+}
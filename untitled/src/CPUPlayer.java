@@ -1,5 +1,10 @@
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * CPU PLAYER
@@ -8,22 +13,65 @@ import java.util.Collections;
  */
 
 
-public class CPUPlayer {
+public class CPUPlayer implements Player {
 
 /*
  * Variabkes
  * */    
     private int aiMark; 
     private int opponentMark;
-    private long startTime;
-    private final long timeLimitMillis = 2900; // Voir la classe Client. Il faut se garder un peu de temps pour capter les erreurs.
+    private final SearchConfig config;
+    private final TimeManager timeManager; // Budget du coup et drapeau d'arrêt partagé
+    private final TranspositionTable transpositionTable; // Partagée par tous les threads de recherche
+    private final OpeningBook openingBook; // null si aucun livre
+    private final EndgameSolver endgameSolver; // null si désactivé
+    private final SearchWorker mainWorker;
+    private final SearchWorker[] helpers; // Threads auxiliaires du mode Lazy SMP
+    private final ExecutorService helperPool;
+    private final SearchWorker ponderWorker; // Réflexion pendant le temps de l'adversaire
+    private final ExecutorService ponderThread;
+    private Future<?> ponderTask;
+    private final SearchStats stats = new SearchStats(); // Mesures du dernier coup
+
+    // Résultats de la dernière recherche (pour les mesures)
+    private int lastDepth;
+    private long lastNodes;
+    private long lastElapsedMillis;
 
 /*
  * Constructor
  *  */    
     public CPUPlayer(int aiMark) {
+        this(aiMark, new SearchConfig());
+    }
+
+    public CPUPlayer(int aiMark, SearchConfig config) {
         this.aiMark = aiMark;
         this.opponentMark = (aiMark == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+        this.config = config;
+        this.timeManager = new TimeManager(config);
+        this.transpositionTable = new TranspositionTable(config.ttSizeMb);
+        this.openingBook = OpeningBook.open(config.bookPath);
+        this.endgameSolver = config.endgameEmptyCells > 0 ? new EndgameSolver(config) : null;
+        this.mainWorker = new SearchWorker(timeManager, true, aiMark, config, transpositionTable);
+
+        int helperCount = Math.max(0, config.threads - 1);
+        this.helpers = new SearchWorker[helperCount];
+        for (int i = 0; i < helperCount; i++) {
+            helpers[i] = new SearchWorker(timeManager, false, aiMark, config, transpositionTable);
+        }
+        this.helperPool = helperCount == 0 ? null : Executors.newFixedThreadPool(helperCount, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.ponderWorker = config.ponder ? new SearchWorker(timeManager, false, aiMark, config, transpositionTable) : null;
+        this.ponderThread = !config.ponder ? null : Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-ponder");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
 
@@ -31,189 +79,275 @@ public class CPUPlayer {
  * Methods
  * */    
     // Trouver le meilleur coup à jouer.
+    @Override
     public GlobalMove findBestMove(GlobalBoard board, GlobalMove lastOpponentMove) {
-        this.startTime = System.currentTimeMillis();
+        return findBestMove(board, lastOpponentMove, System.nanoTime());
+    }
+
+    // Le budget de temps part de `startNanos` (réception de la commande du serveur).
+    @Override
+    public GlobalMove findBestMove(GlobalBoard board, GlobalMove lastOpponentMove, long startNanos) {
+        stats.reset(aiMark, config.threads);
+        GlobalMove chosen = chooseMove(board, lastOpponentMove, startNanos);
+        stats.finish(chosen == null ? PackedBoard.NO_MOVE : chosen.toCell(), lastNodes, lastElapsedMillis);
+        if (!config.statsFile.isEmpty()) {
+            stats.appendTo(config.statsFile);
+        }
+        return chosen;
+    }
+
+    // Mesures du dernier appel à findBestMove.
+    public SearchStats getLastStats() {
+        return stats;
+    }
+
+    private GlobalMove chooseMove(GlobalBoard board, GlobalMove lastOpponentMove, long startNanos) {
+        boolean pondered = ponderTask != null;
+        stopPondering();
+        timeManager.start(startNanos);
         GlobalMove bestMoveFound = null;
 
-        System.out.println("AI (" + (aiMark == LocalBoard.X ? "X" : "O") + ") thinking...");
+        Log.info("AI ({c}) thinking...", aiMark == LocalBoard.X ? 'X' : 'O');
+
+        // Une seule copie du plateau : la recherche joue et annule les coups sur place.
+        // Les GlobalMove ne sont créés qu'ici, à la racine.
+        PackedBoard searchBoard = new PackedBoard(board.getPackedBoard());
+        int lastMoveCell = (lastOpponentMove == null) ? PackedBoard.NO_MOVE : lastOpponentMove.toCell();
+        // Après une réflexion, la génération a déjà avancé dans startPondering : les
+        // entrées écrites pendant le temps de l'adversaire restent de la génération courante.
+        if (!pondered)
+            transpositionTable.newSearch();
+        mainWorker.newSearch();
+        lastDepth = 0;
+        lastNodes = 0;
+        lastElapsedMillis = 0;
 
         //Si on peut gagner on gagne.
         ArrayList<GlobalMove> possibleMoves = board.getPossibleMoves(lastOpponentMove);
         for (GlobalMove immediateMove : possibleMoves) {
-            GlobalBoard testBoard = new GlobalBoard(board);
-            if (testBoard.play(immediateMove, this.aiMark)) {
-                if (testBoard.checkGlobalWinner() == this.aiMark) {
-                    System.out.println("Found immediate winning move: " + moveToString(immediateMove));
-                    return immediateMove;
+            int cell = immediateMove.toCell();
+            searchBoard.play(cell, this.aiMark);
+            boolean wins = searchBoard.checkGlobalWinner() == this.aiMark;
+            searchBoard.undo(cell);
+            if (wins) {
+                Log.info("Found immediate winning move: {m}", cell);
+                stats.setSource(SearchStats.IMMEDIATE_WIN);
+                return immediateMove;
+            }
+        }
+
+        // Position du livre d'ouvertures : le coup est joué sans chercher.
+        if (openingBook != null) {
+            int bookMove = openingBook.lookup(searchBoard, this.aiMark, lastMoveCell);
+            for (GlobalMove move : possibleMoves) {
+                if (bookMove != OpeningBook.MISS && move.toCell() == bookMove) {
+                    Log.info("Book move: {m} with score: {}", bookMove,
+                            openingBook.score(searchBoard, this.aiMark, lastMoveCell));
+                    stats.setSource(SearchStats.BOOK);
+                    return move;
                 }
             }
         }
 
+        // Un seul coup légal : inutile de chercher.
+        if (possibleMoves.size() == 1) {
+            Log.info("Single legal move: {m}", possibleMoves.get(0).toCell());
+            stats.setSource(SearchStats.SINGLE_MOVE);
+            return possibleMoves.get(0);
+        }
+
+        // Fin de partie : résolution exacte si peu de cases restent. Si le temps
+        // manque avant la preuve, la recherche heuristique prend le reste du budget.
+        if (endgameSolver != null && searchBoard.openEmptyCount() <= config.endgameEmptyCells) {
+            boolean solved = endgameSolver.solve(searchBoard, this.aiMark, lastMoveCell, timeManager);
+            if (solved) {
+                GlobalMove solvedMove = GlobalMove.fromCell(endgameSolver.getBestMove());
+                int result = endgameSolver.getResult();
+                if (result == 0)
+                    Log.info("Endgame solved: draw with {m} ({} nodes, {} ms)", endgameSolver.getBestMove(),
+                            endgameSolver.nodes, timeManager.elapsedMillis());
+                else
+                    Log.info(result > 0 ? "Endgame solved: win in {} plies with {m} ({} nodes, {} ms)"
+                            : "Endgame solved: loss in {} plies with {m} ({} nodes, {} ms)",
+                            endgameSolver.getDistance(), endgameSolver.getBestMove(), endgameSolver.nodes,
+                            timeManager.elapsedMillis());
+                lastNodes = endgameSolver.nodes;
+                lastElapsedMillis = Math.max(1, timeManager.elapsedMillis());
+                stats.setSource(SearchStats.ENDGAME);
+                return solvedMove;
+            }
+            Log.info("  Endgame not solved in time ({} nodes)", endgameSolver.nodes);
+            timeManager.resetStop();
+        }
+
+        // Lance les threads auxiliaires, chacun sur sa copie du plateau, à des
+        // profondeurs décalées.
+        List<Future<?>> helperTasks = new ArrayList<>();
+        for (int i = 0; i < helpers.length; i++) {
+            SearchWorker helper = helpers[i];
+            PackedBoard helperBoard = new PackedBoard(board.getPackedBoard());
+            int depthOffset = (i + 1) % 2;
+            helper.newSearch();
+            helperTasks.add(helperPool.submit(() -> helper.runHelper(helperBoard, lastMoveCell, depthOffset)));
+        }
+
         // Sinon on analyse le board.
         int maxDepth = 1;
-        try {
-            while (System.currentTimeMillis() - startTime < timeLimitMillis) {
-                System.out.println("  Trying depth: " + maxDepth); // Print la profondeur
-
-                // Créer un move pour calculer le minimax.
-                // S'assurer que le board n'est pas le board réel mais le board copié.
-                MoveScore currentBest = minimaxAlphaBeta(new GlobalBoard(board), 
-                        lastOpponentMove, 
-                        maxDepth,
-                        Integer.MIN_VALUE, 
-                        Integer.MAX_VALUE, 
-                        true);
-
-                // ...(rest of the iterative deepening loop as before)...
-                if (currentBest != null && currentBest.move != null) {
-                    bestMoveFound = currentBest.move;
-
-                    //indiquer les donnees de la profondeur
-                    System.out.println(
-                        "  Depth " + 
-                        maxDepth + 
-                        " found move: " + 
-                        moveToString(bestMoveFound) + 
-                        " with score: " + 
-                        currentBest.score);
-                } else {
-
-                    //Arrive rarement plus un error handling
-                    System.out.println(
-                    "  Depth " + 
-                    maxDepth + 
-                    " found no better move or timed out partially.");
-                    if (currentBest == null)
-                        break; 
-                }
+        int previousScore = 0;
+        while (maxDepth < MoveOrdering.MAX_PLY) {
+            Log.debug("  Trying depth: {}", maxDepth); // Print la profondeur
+
+            // Calculer le minimax sur la copie du plateau.
+            long iterationStart = System.nanoTime();
+            long nodesBefore = mainWorker.nodes;
+            long leavesBefore = mainWorker.leafEvaluations;
+            long quiescenceBefore = mainWorker.quiescenceNodes;
+            long probesBefore = mainWorker.ttProbes;
+            long hitsBefore = mainWorker.ttHits;
+            long cutoffsBefore = mainWorker.getMoveOrdering().getCutoffs();
+            long firstCutoffsBefore = mainWorker.getMoveOrdering().getFirstMoveCutoffs();
+            int score = mainWorker.searchDepth(searchBoard, lastMoveCell, maxDepth, previousScore);
+
+            if (mainWorker.isStopped()) {
+                // Itération incomplète : le plateau a été remis en état, le résultat est ignoré.
+                Log.info("  Search stopped during depth {}", maxDepth);
+                break;
+            } else if (mainWorker.rootBestMove != PackedBoard.NO_MOVE) {
+                bestMoveFound = GlobalMove.fromCell(mainWorker.rootBestMove);
+                previousScore = score;
+                lastDepth = maxDepth;
+
+                // Mesures de l'itération (différences des compteurs du thread principal)
+                long iterationNodes = mainWorker.nodes - nodesBefore;
+                long cutoffs = mainWorker.getMoveOrdering().getCutoffs() - cutoffsBefore;
+                long firstCutoffs = mainWorker.getMoveOrdering().getFirstMoveCutoffs() - firstCutoffsBefore;
+                SearchStats.Iteration previous = stats.lastIteration();
+                int[] pv = mainWorker.principalVariation(searchBoard, lastMoveCell, this.aiMark, maxDepth);
+                stats.addIteration(new SearchStats.Iteration(maxDepth, score, mainWorker.rootBestMove,
+                        iterationNodes, mainWorker.leafEvaluations - leavesBefore,
+                        mainWorker.quiescenceNodes - quiescenceBefore,
+                        cutoffs == 0 ? 0.0 : (double) firstCutoffs / cutoffs,
+                        previous == null || previous.nodes() == 0 ? 0.0 : (double) iterationNodes / previous.nodes(),
+                        (System.nanoTime() - iterationStart) / 1e6, mainWorker.ttProbes - probesBefore,
+                        mainWorker.ttHits - hitsBefore, pv));
+
+                //indiquer les donnees de la profondeur
+                Log.info("  Depth {} found move: {m} with score: {} (first-move cutoffs: {}%, nodes: {})",
+                        maxDepth, mainWorker.rootBestMove, score,
+                        Math.round(mainWorker.getMoveOrdering().firstMoveCutoffRate() * 100), mainWorker.nodes);
+                if (Log.DEBUG_ENABLED)
+                    Log.debug("  PV: " + pvToString(pv));
+            } else {
 
-                // Valide si il reste du temps.
-                if (System.currentTimeMillis() - startTime >= timeLimitMillis) {
-                    System.out.println("  Time limit reached after completing depth " + maxDepth);
-                    break;
-                }
+                //Arrive rarement plus un error handling
+                Log.info("  Depth {} found no better move or timed out partially.", maxDepth);
+                break; 
+            }
+
+            // Valide si la prochaine profondeur tient dans le budget.
+            timeManager.onIterationComplete(mainWorker.rootBestMove, score,
+                    System.nanoTime() - iterationStart, mainWorker.nodes - nodesBefore);
+            if (!timeManager.canStartIteration()) {
+                Log.info("  Time budget reached after completing depth {} (branching factor: {f})", maxDepth,
+                        Log.decimal(timeManager.getBranchingFactor()));
+                break;
+            }
+
+            maxDepth++;
 
-                maxDepth++;
+        } // While se conlue ici
 
-            } // While se conlue ici
-        } catch (TimeoutException e) {
-            System.out.println("  Search timed out during exploration.");
+        // Le thread principal possède le résultat : arrêter les threads auxiliaires.
+        timeManager.stop();
+        long totalNodes = mainWorker.nodes;
+        for (int i = 0; i < helpers.length; i++) {
+            try {
+                helperTasks.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Log.warn("WARNING: search helper failed: " + e.getCause());
+            }
+            totalNodes += helpers[i].nodes;
         }
+        lastNodes = totalNodes;
+        lastElapsedMillis = Math.max(1, timeManager.elapsedMillis());
+        Log.info("  Searched {} nodes in {} ms ({} nodes/s, {} thread(s))", totalNodes, lastElapsedMillis,
+                totalNodes * 1000 / lastElapsedMillis, config.threads);
 
 
         //Si aucune best move n'est trouvé ==> Prendre un coup hasard dans les coups possibles
         if (bestMoveFound == null) {
-            System.err.println(
-                    "WARNING: AI could not find a move (timeout or no valid moves?). Returning fallback move.");
+            Log.warn("WARNING: AI could not find a move (timeout or no valid moves?). Returning fallback move.");
+            stats.setSource(SearchStats.FALLBACK);
             if (!possibleMoves.isEmpty()) {
                 Collections.shuffle(possibleMoves);
                 bestMoveFound = possibleMoves.get(0);
             } else {
-                System.err.println("CRITICAL WARNING: No possible moves available for AI!");
+                Log.error("CRITICAL WARNING: No possible moves available for AI!");
                 return null;
             }
         }
 
-        System.out.println("AI chose move: " + moveToString(bestMoveFound));
+        Log.info("AI chose move: {m}", bestMoveFound.toCell());
         return bestMoveFound;
     }
 
+    // Lance la réflexion sur la position après notre coup, sur une copie du plateau.
+    @Override
+    public void startPondering(GlobalBoard board, GlobalMove ourMove) {
+        if (ponderThread == null || ourMove == null)
+            return;
+        stopPondering();
+        timeManager.resetStop();
+        PackedBoard ponderBoard = new PackedBoard(board.getPackedBoard());
+        int ourMoveCell = ourMove.toCell();
+        transpositionTable.newSearch();
+        ponderWorker.newSearch();
+        ponderTask = ponderThread.submit(() -> ponderWorker.runPonder(ponderBoard, ourMoveCell));
+        Log.debug("  Pondering on opponent's time...");
+    }
 
-
-    /**
-     * ALGORITHME ALPHA BETA
-     * Prend l'heuristic du globalBoard et calcul le score du coup 
-     * 
-     * Cette méthode est basé sur le laboratoire 1 de Ahmed Sherif
-     * 
-     */
-    private MoveScore minimaxAlphaBeta(GlobalBoard currentBoard, GlobalMove lastMoveMade, int depth, int alpha,
-            int beta, boolean isMaximizingPlayer) throws TimeoutException {
-
-        
-        // Verifie s'il reste du temps
-        if (System.currentTimeMillis() - startTime >= timeLimitMillis) {
-            throw new TimeoutException();
-        }
-
-        // Vérifie s'il n'y a toujours pas de gagnan.
-        int globalWinner = currentBoard.checkGlobalWinner();
-        if (globalWinner != LocalBoard.EMPTY || depth == 0 || currentBoard.isGlobalBoardFull()) {
-            return new MoveScore(null, currentBoard.evaluateGlobal(this.aiMark));
+    // Arrête la réflexion et attend la fin du thread. Les entrées de la table de
+    // transposition sont conservées pour la prochaine recherche.
+    @Override
+    public void stopPondering() {
+        if (ponderTask == null)
+            return;
+        timeManager.stop();
+        try {
+            ponderTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.warn("WARNING: pondering failed: " + e.getCause());
         }
+        ponderTask = null;
+        Log.info("  Pondering stopped after depth {} ({} nodes)", ponderWorker.completedDepth, ponderWorker.nodes);
+    }
 
-        ArrayList<GlobalMove> possibleNextMoves = currentBoard.getPossibleMoves(lastMoveMade);
-
-        // Nous pourrions travailler sur une façon d'organiser où commencer au lieu d'y aller de manière aléatoire.
-        Collections.shuffle(possibleNextMoves);
-
-        GlobalMove bestMoveForThisNode = null;
-
-
-        //Regarder si AlphaBeta calcul le max ou le mi
-        if (isMaximizingPlayer) {
-            int maxEval = Integer.MIN_VALUE;
-            for (GlobalMove move : possibleNextMoves) {
-                // S'assurer de copier le board pour le calculer
-                GlobalBoard nextBoard = new GlobalBoard(currentBoard);
-                boolean played = nextBoard.play(move, this.aiMark);
-                if (!played)
-                    continue;
-
-                //Récurrence
-                MoveScore evalResult = minimaxAlphaBeta(nextBoard, move, depth - 1, alpha, beta, false);
-                if (evalResult == null)
-                    continue;
-
-                if (evalResult.score > maxEval) {
-                    maxEval = evalResult.score;
-                    bestMoveForThisNode = move;
-                }
+    // Arrête la réflexion et les threads auxiliaires; le joueur ne doit plus servir.
+    @Override
+    public void close() {
+        stopPondering();
+        if (helperPool != null)
+            helperPool.shutdownNow();
+        if (ponderThread != null)
+            ponderThread.shutdownNow();
+    }
 
-                //Pruning
-                alpha = Math.max(alpha, evalResult.score);
-                if (beta <= alpha) {
-                    break;
-                }
-            }
-            if (possibleNextMoves.isEmpty()) {
-                return new MoveScore(null, currentBoard.evaluateGlobal(this.aiMark));
-            }
-            return new MoveScore(bestMoveForThisNode, maxEval);
-
-        } else {
-            int minEval = Integer.MAX_VALUE;
-
-            // Regarer pour l'ensemble des coups possible pour le min.
-            for (GlobalMove move : possibleNextMoves) {
-                GlobalBoard nextBoard = new GlobalBoard(currentBoard);
-                boolean played = nextBoard.play(move, this.opponentMark);
-                if (!played)
-                    continue;
-
-                //Récurrence
-                MoveScore evalResult = minimaxAlphaBeta(nextBoard, move, depth - 1, alpha, beta, true); // AI's turn
-                if (evalResult == null)
-                    continue;
-   
-                if (evalResult.score < minEval) {
-                    minEval = evalResult.score;
-                    bestMoveForThisNode = move;
-                }
+    // Profondeur terminée par le thread principal lors de la dernière recherche.
+    public int getLastDepth() {
+        return lastDepth;
+    }
 
-                //Pruning
-                beta = Math.min(beta, evalResult.score);
-                if (beta <= alpha) {
-                    break;
-                }
-            }
+    // Noeuds visités par tous les threads lors de la dernière recherche.
+    public long getLastNodes() {
+        return lastNodes;
+    }
 
-            //Retourne qqch si rien ne peut être joué
-            if (possibleNextMoves.isEmpty()) {
-                return new MoveScore(null, currentBoard.evaluateGlobal(this.aiMark));
-            }
-            return new MoveScore(bestMoveForThisNode, minEval);
-        }
+    public long getLastElapsedMillis() {
+        return lastElapsedMillis;
     }
 
     /**
@@ -222,21 +356,15 @@ public class CPUPlayer {
      */
 
 
-    //Classe qui peremet d'enregistrer le coup a jouer et le score;
-    private static class MoveScore {
-        GlobalMove move;
-        int score;
-
-        MoveScore(GlobalMove move, int score) {
-            this.move = move;
-            this.score = score;
-        }
-    }
-
-    private static class TimeoutException extends Exception {
-        public TimeoutException() {
-            super("Search time limit exceeded.");
+    // Variation principale lisible ("E5 D4 ...").
+    private static String pvToString(int[] pv) {
+        StringBuilder line = new StringBuilder();
+        for (int cell : pv) {
+            if (line.length() > 0)
+                line.append(' ');
+            line.append(moveToString(GlobalMove.fromCell(cell)));
         }
+        return line.toString();
     }
 
     // Convertion d'un move en string
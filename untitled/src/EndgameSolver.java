@@ -0,0 +1,163 @@
+/**
+ * ENDGAME SOLVER
+ *
+ * Résolution exacte des fins de partie. Quand il reste peu de cases vides dans
+ * les plateaux ouverts, l'arbre est assez petit pour être cherché jusqu'au bout :
+ * les feuilles sont des parties terminées (gain, nulle ou perte) et non plus des
+ * évaluations heuristiques.
+ *
+ * Negamax alpha-beta avec la fenêtre (-1, 1) : il suffit de savoir si la position
+ * est gagnée, nulle ou perdue, ce qui coupe dès qu'un coup gagnant est trouvé.
+ * Un gain à `ply` vaut WIN - ply, une perte -(WIN - ply) : le coup renvoyé gagne
+ * en au plus getDistance() demi-coups contre toute défense.
+ *
+ * Les résultats sont gardés dans une table de transposition propre au solveur,
+ * avec les distances relatives au noeud.
+ */
+public class EndgameSolver {
+
+    public static final int WIN = 1000;
+
+    private final TranspositionTable cache;
+    private final MoveOrdering moveOrdering = new MoveOrdering();
+    private final int[][] moveBuffers = new int[82][81]; // Au plus 81 coups avant la fin
+
+    private TimeManager timeManager;
+    private long limitNanos; // La preuve a droite à la moitié de la cible souple
+    private long nodeBudget; // Avec nodeLimit : la moitié de la limite de noeuds, à la place de l'horloge
+    private boolean stopped;
+    long nodes;
+    private int bestMove = PackedBoard.NO_MOVE;
+    private int score;
+    private int rootEmpty; // Cases vides à la racine (profondeur restante au plus rootEmpty - ply)
+
+    public EndgameSolver(SearchConfig config) {
+        this.cache = new TranspositionTable(config.endgameCacheMb);
+    }
+
+    /**
+     * Résout la position où `side` doit jouer. Renvoie false si la recherche a été
+     * arrêtée avant la preuve, après la moitié de la cible souple du TimeManager :
+     * le reste du temps revient à la recherche heuristique. L'horloge n'est lue que
+     * tous les `nodesPerTimeCheck` noeuds; `timeManager` peut être null (aucune
+     * limite).
+     *
+     * Avec une limite de noeuds (SearchConfig.nodeLimit), la preuve a droite à la
+     * moitié de cette limite et l'horloge ne sert plus que de garde-fou (limite
+     * dure) : le choix entre solveur et recherche heuristique ne dépend pas de la
+     * vitesse de la machine.
+     */
+    public boolean solve(PackedBoard board, int side, int lastMove, TimeManager timeManager) {
+        this.timeManager = timeManager;
+        long nodeLimit = timeManager == null ? 0 : timeManager.getNodeLimit();
+        if (timeManager == null)
+            this.limitNanos = Long.MAX_VALUE;
+        else if (nodeLimit > 0)
+            this.limitNanos = timeManager.getHardLimitNanos();
+        else
+            this.limitNanos = timeManager.getSoftLimitNanos() / 2;
+        this.nodeBudget = nodeLimit > 0 ? Math.max(1, nodeLimit / 2) : Long.MAX_VALUE;
+        stopped = false;
+        nodes = 0;
+        bestMove = PackedBoard.NO_MOVE;
+        rootEmpty = board.openEmptyCount();
+        cache.newSearch();
+        moveOrdering.newSearch();
+        score = search(board, lastMove, 0, -1, 1, side);
+        return !stopped && bestMove != PackedBoard.NO_MOVE;
+    }
+
+    // Coup prouvé de la dernière résolution (case 0 à 80).
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    // 1 : gain, 0 : nulle, -1 : perte, pour le joueur qui doit jouer.
+    public int getResult() {
+        return Integer.signum(score);
+    }
+
+    // Demi-coups jusqu'à la fin de la partie prouvée (0 pour une nulle).
+    public int getDistance() {
+        return score == 0 ? 0 : WIN - Math.abs(score);
+    }
+
+    private int search(PackedBoard board, int lastMove, int ply, int alpha, int beta, int side) {
+        nodes++;
+        if (nodes > nodeBudget || (timeManager != null && timeManager.checkTime(nodes, limitNanos)))
+            stopped = true;
+        if (stopped)
+            return 0;
+
+        // Le dernier coup a pu gagner la partie : c'est une perte pour `side`.
+        if (board.checkGlobalWinner() != LocalBoard.EMPTY)
+            return -(WIN - ply);
+        if (board.isFull() || (ply > 0 && board.isDeadDraw())) // Plus aucune ligne possible
+            return 0;
+
+        long key = Zobrist.positionKey(board, side, lastMove);
+        long entry = cache.probe(key);
+        if (entry != TranspositionTable.MISS && ply > 0) {
+            int cached = fromCache(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && cached >= beta)
+                    || (bound == TranspositionTable.UPPER && cached <= alpha))
+                return cached;
+        }
+
+        int[] moves = moveBuffers[ply];
+        int count = board.generateMoves(lastMove, moves);
+        if (count == 0)
+            return 0;
+        int ttMove = (entry != TranspositionTable.MISS) ? TranspositionTable.move(entry) : PackedBoard.NO_MOVE;
+        moveOrdering.order(board, moves, count, ttMove, ply, side);
+
+        int opponent = (side == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+        int alphaOrig = alpha;
+        int best = -WIN - 1;
+        int bestMoveForThisNode = PackedBoard.NO_MOVE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            board.play(move, side);
+            int eval = -search(board, move, ply + 1, -beta, -alpha, opponent);
+            board.undo(move);
+            if (stopped)
+                return 0;
+
+            if (eval > best) {
+                best = eval;
+                bestMoveForThisNode = move;
+            }
+            if (eval > alpha)
+                alpha = eval;
+            if (alpha >= beta) {
+                moveOrdering.recordCutoff(move, ply, rootEmpty - ply, side, i);
+                break;
+            }
+        }
+
+        int bound;
+        if (best <= alphaOrig)
+            bound = TranspositionTable.UPPER;
+        else if (best >= beta)
+            bound = TranspositionTable.LOWER;
+        else
+            bound = TranspositionTable.EXACT;
+        // La profondeur sert seulement au remplacement : garder les plus gros sous-arbres
+        cache.store(key, rootEmpty - ply, bound, toCache(best, ply), bestMoveForThisNode);
+
+        if (ply == 0)
+            bestMove = bestMoveForThisNode;
+        return best;
+    }
+
+    // Les gains et pertes sont stockés en distance depuis le noeud, pas depuis la racine.
+    private static int toCache(int score, int ply) {
+        return score > 0 ? score + ply : score < 0 ? score - ply : 0;
+    }
+
+    private static int fromCache(int score, int ply) {
+        return score > 0 ? score - ply : score < 0 ? score + ply : 0;
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EVAL PARAMS
+ *
+ * Paramètres de l'heuristique : poids des plateaux locaux, score d'un plateau
+ * gagné, score d'une ligne globale à deux plateaux, et scores d'une ligne locale
+ * (deux pièces, une pièce) et du centre local. Les tables (LocalTables,
+ * MetaTables) sont construites à partir de CURRENT au chargement des classes.
+ *
+ * CURRENT est lu au démarrage dans le fichier `-Deval.params` (défaut :
+ * eval_params.txt dans le répertoire courant, s'il existe), écrit par
+ * TexelTuner. Format : une ligne `nom=valeur` par paramètre, `#` pour les
+ * commentaires, les 9 poids séparés par des virgules. Un paramètre absent garde
+ * sa valeur d'origine; un fichier invalide est ignoré au complet.
+ */
+public class EvalParams {
+
+    public static final String DEFAULT_PATH = "eval_params.txt";
+
+    public static final EvalParams CURRENT = load();
+
+    // Poids stratégiques de chaque plateau local, indexés 0 à 8 (centre > coins > côtés)
+    public int[] boardWeights = { 3, 2, 3, 2, 4, 2, 3, 2, 3 };
+    public int localWinScore = 100; // Score de base pour gagner un plateau local
+    public int globalTwoInRowScore = 500; // 2 plateaux gagnés alignés, le troisième ouvert
+    public int lineTwoScore = 10; // Ligne locale avec deux pièces et une case vide
+    public int lineOneScore = 1; // Ligne locale avec une pièce et deux cases vides
+    public int centerScore = 1; // Case centrale d'un plateau local
+
+    public EvalParams copy() {
+        EvalParams copy = new EvalParams();
+        copy.boardWeights = boardWeights.clone();
+        copy.localWinScore = localWinScore;
+        copy.globalTwoInRowScore = globalTwoInRowScore;
+        copy.lineTwoScore = lineTwoScore;
+        copy.lineOneScore = lineOneScore;
+        copy.centerScore = centerScore;
+        return copy;
+    }
+
+    /**
+     * Renvoie null si les paramètres sont utilisables, sinon la raison. Un plateau
+     * local en cours doit valoir moins qu'un plateau gagné (1000 dans
+     * LocalTables), et l'évaluation entière doit rester loin de GLOBAL_WIN_SCORE.
+     */
+    public String validate() {
+        if (boardWeights.length != 9)
+            return "boardWeights needs 9 values";
+        int weightSum = 0;
+        for (int weight : boardWeights) {
+            if (weight < 0)
+                return "negative board weight";
+            weightSum += weight;
+        }
+        if (localWinScore < 0 || globalTwoInRowScore < 0 || lineTwoScore < 0 || lineOneScore < 0 || centerScore < 0)
+            return "negative score";
+        int localMax = 8 * Math.max(lineTwoScore, lineOneScore) + centerScore;
+        if (localMax >= 1000)
+            return "local line scores too large";
+        long evalMax = (long) weightSum * Math.max(localWinScore, localMax) + 8L * globalTwoInRowScore;
+        if (evalMax >= GlobalBoard.GLOBAL_WIN_SCORE / 2)
+            return "evaluation could reach " + evalMax + ", too close to a global win";
+        return null;
+    }
+
+    public static EvalParams read(Path file) throws IOException {
+        EvalParams params = new EvalParams();
+        for (String line : Files.readAllLines(file)) {
+            int comment = line.indexOf('#');
+            if (comment >= 0)
+                line = line.substring(0, comment);
+            line = line.trim();
+            if (line.isEmpty())
+                continue;
+            int equals = line.indexOf('=');
+            if (equals < 0)
+                throw new IOException("expected name=value: " + line);
+            String name = line.substring(0, equals).trim();
+            String value = line.substring(equals + 1).trim();
+            try {
+                switch (name) {
+                    case "boardWeights":
+                        String[] parts = value.split(",");
+                        params.boardWeights = new int[parts.length];
+                        for (int i = 0; i < parts.length; i++)
+                            params.boardWeights[i] = Integer.parseInt(parts[i].trim());
+                        break;
+                    case "localWinScore":
+                        params.localWinScore = Integer.parseInt(value);
+                        break;
+                    case "globalTwoInRowScore":
+                        params.globalTwoInRowScore = Integer.parseInt(value);
+                        break;
+                    case "lineTwoScore":
+                        params.lineTwoScore = Integer.parseInt(value);
+                        break;
+                    case "lineOneScore":
+                        params.lineOneScore = Integer.parseInt(value);
+                        break;
+                    case "centerScore":
+                        params.centerScore = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IOException("unknown parameter " + name);
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException("invalid value for " + name + ": " + value);
+            }
+        }
+        return params;
+    }
+
+    public void write(Path file, String comment) throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (comment != null)
+            lines.add("# " + comment);
+        StringBuilder weights = new StringBuilder();
+        for (int i = 0; i < 9; i++)
+            weights.append(i > 0 ? "," : "").append(boardWeights[i]);
+        lines.add("boardWeights=" + weights);
+        lines.add("localWinScore=" + localWinScore);
+        lines.add("globalTwoInRowScore=" + globalTwoInRowScore);
+        lines.add("lineTwoScore=" + lineTwoScore);
+        lines.add("lineOneScore=" + lineOneScore);
+        lines.add("centerScore=" + centerScore);
+        Files.write(file, lines);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder weights = new StringBuilder();
+        for (int i = 0; i < 9; i++)
+            weights.append(i > 0 ? "," : "").append(boardWeights[i]);
+        return "boardWeights=" + weights + " localWin=" + localWinScore + " twoInRow=" + globalTwoInRowScore
+                + " lineTwo=" + lineTwoScore + " lineOne=" + lineOneScore + " center=" + centerScore;
+    }
+
+    // Paramètres du fichier -Deval.params, ou valeurs d'origine.
+    private static EvalParams load() {
+        String path = System.getProperty("eval.params");
+        boolean explicit = path != null;
+        Path file = Path.of(explicit ? path : DEFAULT_PATH);
+        if (explicit && path.isEmpty() || !Files.isRegularFile(file)) {
+            if (explicit && !path.isEmpty())
+                Log.warn("WARNING: no evaluation parameters at " + file.toAbsolutePath() + ", using defaults");
+            return new EvalParams();
+        }
+        try {
+            EvalParams params = read(file);
+            String problem = params.validate();
+            if (problem != null) {
+                Log.warn("WARNING: ignoring evaluation parameters " + file + ": " + problem);
+                return new EvalParams();
+            }
+            Log.info("Evaluation parameters from " + file + ": " + params);
+            return params;
+        } catch (IOException e) {
+            Log.warn("WARNING: could not read evaluation parameters " + file + ": " + e.getMessage());
+            return new EvalParams();
+        }
+    }
+}
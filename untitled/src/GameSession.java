@@ -0,0 +1,328 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * GAME SESSION
+ *
+ * Une connexion au serveur et l'état de ses parties : plateau, moteur, couleur
+ * et dernier coup adverse. Client en ouvre une seule, ou plusieurs à la fois
+ * (une par thread virtuel) pour jouer plusieurs matchs dans la même JVM.
+ *
+ * Avec `searchPool`, la recherche est confiée à ce pool borné au nombre de coeurs
+ * (file d'attente FIFO : les sessions sont servies dans l'ordre d'arrivée) et le
+ * thread virtuel de la session attend sans occuper de coeur. Le budget de temps
+ * du coup part de la réception de la commande, attente dans la file comprise.
+ */
+public class GameSession implements Runnable {
+
+    private final int id;
+    private final String serverAddress;
+    private final int serverPort;
+    private final SearchConfig config;
+    private final ExecutorService searchPool; // null : recherche dans le thread de la session
+
+    private ProtocolReader input;
+    private BufferedOutputStream output;
+    private GlobalBoard gameBoard = new GlobalBoard();
+    private Player aiPlayer;
+    private int myMark; // Board.X or Board.O
+    private int opponentMark;
+    private GlobalMove lastOpponentMove = null;
+    private final int[] boardValues = new int[81]; // Plateau reçu, réutilisé à chaque partie
+
+    // Latence des coups : de la réception de la commande à l'envoi du coup
+    private int movesSent;
+    private long totalLatencyNanos;
+    private long maxLatencyNanos;
+    private long totalQueueNanos; // Attente avant qu'un coeur du pool ne prenne la recherche
+
+    public GameSession(int id, String serverAddress, int serverPort, SearchConfig config, ExecutorService searchPool) {
+        this.id = id;
+        this.serverAddress = serverAddress;
+        this.serverPort = serverPort;
+        this.config = config;
+        this.searchPool = searchPool;
+    }
+
+    @Override
+    public void run() {
+        Log.info("Connecting to server " + serverAddress + ":" + serverPort + "...");
+
+        try (Socket socket = new Socket(serverAddress, serverPort)) {
+            socket.setTcpNoDelay(true);
+            Log.info("Connected!");
+
+            input = new ProtocolReader(socket.getInputStream());
+            output = new BufferedOutputStream(socket.getOutputStream());
+
+            while (true) {
+                Log.info("\nWaiting for server command...");
+                int command = input.readCommand(); // Attente de commandes
+
+                if (command == ProtocolReader.EOF) {
+                    Log.info("Server disconnected.");
+                    break;
+                }
+
+                long receivedNanos = System.nanoTime(); // Le budget du coup commence ici
+                char cmd = (char) command;
+                Log.info("Received command: {c}", cmd);
+
+                // Command '1': Commencer le jeux en tante que joueur 1 (X)
+                if (cmd == '1') {
+                    myMark = LocalBoard.X;
+                    opponentMark = LocalBoard.O;
+                    startNewGame();
+                    aiPlayer = Player.create(myMark, config);
+                    Log.info("Commencer en tant que Player 1 (X).");
+                    parseBoardState();
+
+                    Log.info("Making first move...");
+                    GlobalMove aiMove = computeMove(null, receivedNanos);
+                    if (aiMove != null) {
+                        boolean played = gameBoard.play(aiMove, myMark);
+                        if (!played)
+                            Log.error("AI a fait un coup invalid"); // ca devrait jamais arriver
+
+                        sendMoveToServer(aiMove, receivedNanos);
+                        aiPlayer.startPondering(gameBoard, aiMove);
+                    } else {
+                        Log.error("AI peut pas faire un coup.");
+                        break;
+                    }
+                    lastOpponentMove = null; // Reset le coup de l'adversaire
+
+                }
+                // Command '2': Commencer le jeux en tante que joueur 2 (X)
+                else if (cmd == '2') {
+                    myMark = LocalBoard.O;
+                    opponentMark = LocalBoard.X;
+                    startNewGame();
+                    aiPlayer = Player.create(myMark, config);
+                    Log.info("Commencer le jeux en tant que Joueur 2 (O). Attente pour le coup de Joueur x");
+                    parseBoardState(); // Lire l'état initial du plateau (sera mis à jour par le serveur)
+                    
+                    lastOpponentMove = null; // L'adversaire n'a pas encore joué
+                    
+
+                }
+                // Commande '3' : Le serveur demande le prochain coup / fournit le dernier coup de l'adversaire
+                else if (cmd == '3') {
+                    int opponentCell = parseOpponentMove(); // Lire le coup de l'adversaire
+                    aiPlayer.stopPondering(); // Le coup adverse est connu : arrêter la réflexion
+                    // Mettre à jour le dernier coup
+                    lastOpponentMove = opponentCell >= 0 ? GlobalMove.fromCell(opponentCell) : null;
+                    Log.info("Opponent played: {m} (parsed in {} us)",
+                            opponentCell >= 0 ? opponentCell : PackedBoard.NO_MOVE, input.getLastParseNanos() / 1000);
+
+                    if (lastOpponentMove != null) {
+                        // Vérifier si le coup reçu est jouable sur notre plateau actuel
+                        
+                        if (gameBoard.isLocalBoardClosed(lastOpponentMove.getGlobalRow(),
+                                lastOpponentMove.getGlobalCol()) ||
+                                gameBoard.getLocalBoardPiece(lastOpponentMove.getGlobalRow(),
+                                        lastOpponentMove.getGlobalCol(), lastOpponentMove.getLocalRow(),
+                                        lastOpponentMove.getLocalCol()) != LocalBoard.EMPTY) {
+                            Log.warn("WARNING: Server sent an opponent move (" + input.lastMoveText()
+                                    + ") that seems invalid on our board!");
+                        }
+
+                        boolean played = gameBoard.play(lastOpponentMove, opponentMark);
+                        if (!played) {
+                            Log.error("ERROR: Failed to apply valid opponent move " + input.lastMoveText()
+                                    + " to internal board!");
+                            // gameBoard.printDetailedGlobalBoard(); //Afficher l'état du plateau pour le débogage
+
+                            break; // Quitter
+                        }
+                        Log.debug("Board state after opponent's move:");
+                        // gameBoard.printDetailedGlobalBoard(); //Afficher l'état du plateau pour le débogage
+                            
+                    } else if (opponentCell == ProtocolReader.INVALID_MOVE) {
+                        // A0 est attendu pour la toute première invite pour X, ignorer les autres formats invalides
+                        Log.error("Could not parse opponent move: " + input.lastMoveText());
+                    }
+
+                    // Maintenant, calculer et envoyer le coup de l'IA
+                    Log.info("Calculating AI move...");
+                    GlobalMove aiMove = computeMove(lastOpponentMove, receivedNanos);
+                    if (aiMove != null) {
+                        // Appliquer le coup de l'IA sur notre plateau interne
+                        boolean played = gameBoard.play(aiMove, myMark);
+                        if (!played) {
+                            Log.error(
+                                    "CRITICAL: AI generated an invalid move: " + CPUPlayer.moveToString(aiMove));
+                            // Tentative de récupération ou sortie
+                            break; // Quitter
+                        }
+
+                        sendMoveToServer(aiMove, receivedNanos);
+                        aiPlayer.startPondering(gameBoard, aiMove);
+                        Log.debug("Board state after AI's move:");
+                        // gameBoard.printDetailedGlobalBoard();
+                    } else {
+                        Log.error("AI could not determine a move.");
+                        break;
+                    }
+
+                }
+                // Commande '4' : Le dernier coup envoyé était invalide
+                else if (cmd == '4') {
+                    Log.error("!!!! Server reported last move was invalid !!!!");
+                    aiPlayer.stopPondering();
+
+                    Log.info("Attempting to recalculate move...");
+                    // Réutiliser le *précédent* lastOpponentMove pour déterminer les coups valides maintenant
+                    GlobalMove aiMove = computeMove(lastOpponentMove, receivedNanos);
+                    if (aiMove != null) {
+                        
+                        sendMoveToServer(aiMove, receivedNanos);
+                        // Nous supposons que le serveur acceptera celui-ci. Sinon, nous pourrions boucler.
+                    } else {
+                        Log.error("AI could not determine a recovery move.");
+                        break;
+                    }
+
+                } else if (cmd == '5') {
+                    int finalCell = parseOpponentMove(); // Lire le tout dernier coup joué
+                    if (aiPlayer != null)
+                        aiPlayer.stopPondering();
+                    Log.info("Game Over! Last move played was: {m}", finalCell >= 0 ? finalCell : PackedBoard.NO_MOVE);
+
+                    // Appliquer le dernier coup pour voir l'état final
+                    // (case déjà occupée : c'était notre propre coup)
+                    if (finalCell >= 0) {
+                        GlobalMove finalMove = GlobalMove.fromCell(finalCell);
+                        if (gameBoard.getLocalBoardPiece(finalMove.getGlobalRow(), finalMove.getGlobalCol(),
+                                finalMove.getLocalRow(), finalMove.getLocalCol()) == LocalBoard.EMPTY)
+                            gameBoard.play(finalMove, opponentMark);
+                    }
+
+                    int winner = gameBoard.checkGlobalWinner();
+                    if (winner == myMark)
+                        Log.info("AI WINS!");
+                    else if (winner == opponentMark)
+                        Log.info("Opponent Wins.");
+                    else
+                        Log.info("It's a DRAW!");
+                    // Le serveur du cours ferme la connexion; un serveur local peut
+                    // enchaîner une autre partie sur la même connexion.
+
+                } else {
+                    Log.info("Unknown command from server: {c}", cmd);
+                    int skipped = input.discardBuffered();
+                    if (skipped > 0)
+                        Log.info("  Skipped {} bytes of extra data", skipped);
+                }
+            } // fin de la boucle while
+
+        } catch (IOException e) {
+            Log.error("Connection error: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            if (aiPlayer != null)
+                aiPlayer.close();
+        }
+    }
+
+    // Calcule notre coup, dans le pool de recherche s'il y en a un.
+    private GlobalMove computeMove(GlobalMove lastMove, long receivedNanos) {
+        if (searchPool == null)
+            return aiPlayer.findBestMove(gameBoard, lastMove, receivedNanos);
+        long submitted = System.nanoTime();
+        Future<GlobalMove> search = searchPool.submit(() -> {
+            totalQueueNanos += System.nanoTime() - submitted;
+            return aiPlayer.findBestMove(gameBoard, lastMove, receivedNanos);
+        });
+        try {
+            return search.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Log.error("Session search failed: " + e.getCause());
+            return null;
+        }
+    }
+
+    // Nouvelle partie : plateau vide, moteur de la partie précédente fermé (réflexion
+    // et threads auxiliaires).
+    private void startNewGame() {
+        if (aiPlayer != null)
+            aiPlayer.close();
+        gameBoard = new GlobalBoard();
+        lastOpponentMove = null;
+    }
+
+    // Lire et analyser l'état complet du plateau 
+    private void parseBoardState() throws IOException {
+        if (!input.readBoard(boardValues)) {
+            Log.error("Error: Did not receive a complete board state from server.");
+            return;
+        }
+
+        int index = 0;
+        for (int gRow = 0; gRow < 3; gRow++) {
+            for (int lRow = 0; lRow < 3; lRow++) {
+                for (int gCol = 0; gCol < 3; gCol++) {
+                    for (int lCol = 0; lCol < 3; lCol++) {
+                        // Placer la pièce sur le bon sous-plateau
+                        gameBoard.setLocalBoardPiece(gRow, gCol, lRow, lCol, boardValues[index++]); // Définit directement la pièce
+                    }
+                }
+            }
+        }
+        if (Log.DEBUG_ENABLED)
+            Log.debug("Received board values: " + Arrays.toString(boardValues)); // Sortie de débogage
+        Log.info("Successfully parsed board state ({} us).", input.getLastParseNanos() / 1000);
+        // Les gagnants locaux sont mis à jour à chaque pièce placée
+    }
+
+    //  Méthode utilitaire pour lire le coup de l'adversaire après la commande '3' or '5'.
+    //  Renvoie la case jouée, ou une constante de ProtocolReader (A0, invalide, fin).
+    private int parseOpponentMove() throws IOException {
+        // Le serveur envoie le coup sous forme de chaîne " D6"
+        int cell = input.readMove();
+        if (cell == ProtocolReader.EOF)
+            Log.warn("Warning: Did not receive opponent move string after command 3/5.");
+        else if (cell == ProtocolReader.INVALID_MOVE)
+            Log.warn("Warning: Received potentially invalid move format: \"" + input.lastMoveText() + "\"");
+        return cell;
+    }
+
+    private void sendMoveToServer(GlobalMove move, long receivedNanos) throws IOException {
+        String moveStr = CPUPlayer.moveToString(move);
+        output.write(moveStr.getBytes());
+        output.flush();
+        long latency = System.nanoTime() - receivedNanos;
+        movesSent++;
+        totalLatencyNanos += latency;
+        maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+        Log.info("Sent move: {m}", move.toCell()); // Après l'envoi : le journal ne retarde pas le coup
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getMovesSent() {
+        return movesSent;
+    }
+
+    public long getTotalLatencyNanos() {
+        return totalLatencyNanos;
+    }
+
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    public long getTotalQueueNanos() {
+        return totalQueueNanos;
+    }
+}
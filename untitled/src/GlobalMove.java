@@ -52,6 +52,24 @@ public class GlobalMove {
         return localCol;
     }
 
+    /**
+     * @return L'indice de la case (0 à 80) utilisé par PackedBoard
+     */
+    public int toCell() {
+        return PackedBoard.toCell(globalRow, globalCol, localRow, localCol);
+    }
+
+    /**
+     * Construit un mouvement à partir d'un indice de case (0 à 80)
+     * @param cell L'indice de la case, tel que produit par toCell
+     * @return Le mouvement correspondant
+     */
+    public static GlobalMove fromCell(int cell) {
+        int board = PackedBoard.boardOf(cell);
+        int local = PackedBoard.localOf(cell);
+        return new GlobalMove(board / 3, board % 3, local / 3, local % 3);
+    }
+
     /**
      * Représentation textuelle du mouvement
      * @return Une chaîne formatée montrant les coordonnées globales et locales
@@ -70,9 +70,9 @@ public class LocalBoard {
 
         // Ajoute un petit bonus pour le contrôle du centre
         if (board[1][1] == piece)
-            score += 1;
+            score += EvalParams.CURRENT.centerScore;
         else if (board[1][1] == opponent)
-            score -= 1;
+            score -= EvalParams.CURRENT.centerScore;
 
         // Vérifie un match nul si le plateau est plein et personne n'a gagné localement
         if (isFull() && !checkWinner(piece) && !checkWinner(opponent))
@@ -95,13 +95,13 @@ public class LocalBoard {
         if ((p1 == piece && p2 == piece && p3 == EMPTY) ||
                 (p1 == piece && p2 == EMPTY && p3 == piece) ||
                 (p1 == EMPTY && p2 == piece && p3 == piece)) {
-            score = 10;
+            score = EvalParams.CURRENT.lineTwoScore;
         }
         // Vérifie les opportunités du joueur (1 pièce alignée avec deux cases vides)
         else if ((p1 == piece && p2 == EMPTY && p3 == EMPTY) ||
                 (p1 == EMPTY && p2 == piece && p3 == EMPTY) ||
                 (p1 == EMPTY && p2 == EMPTY && p3 == piece)) {
-            score = 1;
+            score = EvalParams.CURRENT.lineOneScore;
         }
 
         // Vérifie les opportunités de l'adversaire (2 pièces alignées avec une case
@@ -109,7 +109,7 @@ public class LocalBoard {
         if ((p1 == opponent && p2 == opponent && p3 == EMPTY) ||
                 (p1 == opponent && p2 == EMPTY && p3 == opponent) ||
                 (p1 == EMPTY && p2 == opponent && p3 == opponent)) {
-            score = -10; // Priorité plus élevée pour bloquer l'adversaire que pour avancer soi-même
+            score = -EvalParams.CURRENT.lineTwoScore; // Priorité plus élevée pour bloquer l'adversaire que pour avancer soi-même
         }
         // Vérifie les opportunités de l'adversaire (1 pièce alignée avec deux cases
         // vides) - score négatif
@@ -119,7 +119,7 @@ public class LocalBoard {
             // Seulement si le score n'est pas déjà positif (ne pas écraser une opportunité
             // pour nous)
             if (score <= 0)
-                score = -1;
+                score = -EvalParams.CURRENT.lineOneScore;
         }
 
         return score;
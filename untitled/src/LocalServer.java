@@ -0,0 +1,312 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * LOCAL SERVER
+ *
+ * Remplace le serveur du cours pour jouer hors ligne contre Client : mêmes
+ * commandes ('1' à '5'), même plateau de 81 valeurs séparées par des espaces et
+ * mêmes coups de deux caractères (" D6"). L'adversaire est joué par le serveur
+ * lui-même : un moteur (options -Dopponent.* par-dessus -Dsearch.*, 100 ms par
+ * coup par défaut) ou des coups au hasard (pour mesurer seulement le protocole).
+ *
+ * Les parties s'enchaînent sur la même connexion, Client changeant de couleur à
+ * chaque partie. Avec plusieurs connexions (Client en mode multi-sessions),
+ * chacune est servie par son thread virtuel. Chaque coup reçu est vérifié (commande '4' s'il est illégal,
+ * défaite après trois essais) et chronométré de l'envoi de la commande à la
+ * réception du coup. Une réponse au-delà de `server.moveLimitMillis` (3000 ms)
+ * perd la partie, comme en tournoi.
+ *
+ * Utilisation : java LocalServer [parties] [port] [engine|random] [connexions]
+ * (défaut : 10 8888 engine 1), puis java Client localhost <port> [sessions]
+ */
+public class LocalServer {
+
+    private static final int MAX_ATTEMPTS = 3; // Coups illégaux tolérés pour un même tour
+
+    private final int port;
+    private final boolean randomOpponent;
+    private final SearchConfig opponentConfig;
+    private final long moveLimitMillis;
+    private final Random random = new Random(320);
+
+    // Résultats du point de vue de Client, toutes connexions confondues
+    private int wins;
+    private int draws;
+    private int losses;
+    private long[] latencies = new long[256]; // Nanosecondes par réponse de Client
+    private int latencyCount;
+    private int illegalMoves;
+    private int overruns;
+    private int engineIllegalMoves; // Coups nuls ou illégaux du moteur adverse, remplacés au hasard
+
+    private LocalServer(int port, boolean randomOpponent, SearchConfig opponentConfig, long moveLimitMillis) {
+        this.port = port;
+        this.randomOpponent = randomOpponent;
+        this.opponentConfig = opponentConfig;
+        this.moveLimitMillis = moveLimitMillis;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8888;
+        boolean randomOpponent = args.length > 2 && args[2].equalsIgnoreCase("random");
+        int connections = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        if (System.getProperty("log.level") == null)
+            System.setProperty("log.level", "tournament"); // Le moteur adverse reste silencieux
+        SearchConfig opponentConfig = SearchConfig.fromSystemProperties("opponent.", SearchConfig.fromSystemProperties());
+        if (System.getProperty("opponent.timeLimitMillis") == null && System.getProperty("search.timeLimitMillis") == null)
+            opponentConfig.timeLimitMillis = 100;
+        opponentConfig.ponder = false;
+
+        LocalServer server = new LocalServer(port, randomOpponent, opponentConfig,
+                Long.getLong("server.moveLimitMillis", 3000));
+        server.run(games, connections);
+    }
+
+    private void run(int games, int connections) throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(port);
+                ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            System.out.println("Waiting for " + connections + " Client connection(s) on port " + port + " ("
+                    + (randomOpponent ? "random" : "engine " + opponentConfig.timeLimitMillis + " ms") + " opponent)");
+            for (int c = 0; c < connections; c++) {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout((int) moveLimitMillis + 5000);
+                String name = connections > 1 ? "[" + c + "] " : "";
+                System.out.println(name + "Client connected from " + socket.getRemoteSocketAddress());
+                threads.execute(() -> serve(socket, games, name));
+            }
+        } // Attend la fin de toutes les connexions
+        report();
+    }
+
+    // Joue `games` parties sur une connexion.
+    private void serve(Socket socket, int games, String name) {
+        try (socket) {
+            Connection connection = new Connection(socket);
+            for (int game = 0; game < games; game++) {
+                int clientMark = (game & 1) == 0 ? LocalBoard.X : LocalBoard.O;
+                int winner;
+                try {
+                    winner = playGame(connection, clientMark);
+                } catch (SocketTimeoutException e) {
+                    System.out.println(name + "Client did not answer: game " + (game + 1) + " lost, stopping");
+                    recordResult(clientMark == LocalBoard.X ? LocalBoard.O : LocalBoard.X, clientMark);
+                    break;
+                }
+                if (winner == ProtocolReader.EOF) {
+                    System.out.println(name + "Client disconnected during game " + (game + 1));
+                    break;
+                }
+                recordResult(winner, clientMark);
+                System.out.println(name + "Game " + (game + 1) + " (Client " + (clientMark == LocalBoard.X ? "X" : "O")
+                        + "): " + (winner == clientMark ? "Client wins" : winner == LocalBoard.EMPTY ? "draw"
+                                : "Client loses"));
+            }
+        } catch (IOException e) {
+            System.out.println(name + "Connection error: " + e.getMessage());
+        }
+    }
+
+    private synchronized void recordResult(int winner, int clientMark) {
+        if (winner == clientMark)
+            wins++;
+        else if (winner == LocalBoard.EMPTY)
+            draws++;
+        else
+            losses++;
+    }
+
+    /**
+     * Joue une partie. Renvoie le gagnant (EMPTY pour une nulle), ou EOF si
+     * Client se déconnecte.
+     */
+    private int playGame(Connection connection, int clientMark) throws IOException {
+        int serverMark = clientMark == LocalBoard.X ? LocalBoard.O : LocalBoard.X;
+        Player engine = randomOpponent ? null : Player.create(serverMark, opponentConfig);
+        try {
+            return playGame(connection, clientMark, serverMark, engine);
+        } finally {
+            if (engine != null)
+                engine.close();
+        }
+    }
+
+    private int playGame(Connection connection, int clientMark, int serverMark, Player engine) throws IOException {
+        ProtocolReader input = connection.input;
+        PackedBoard board = new PackedBoard();
+        GlobalBoard engineBoard = randomOpponent ? null : new GlobalBoard();
+        int[] moves = new int[81];
+        int lastMove = PackedBoard.NO_MOVE;
+
+        connection.sendBoard(clientMark == LocalBoard.X ? '1' : '2', board);
+        boolean clientToMove = clientMark == LocalBoard.X;
+        boolean awaitingReply = clientToMove; // La commande '1' demande déjà un coup
+        while (true) {
+            int move;
+            if (clientToMove) {
+                if (!awaitingReply)
+                    connection.sendMove('3', lastMove);
+                long sent = System.nanoTime();
+                move = input.readMove();
+                int attempts = 1;
+                while (move >= 0 && !isLegal(board, lastMove, move, moves) && attempts < MAX_ATTEMPTS) {
+                    countIllegalMove();
+                    System.out.println("  Illegal move " + input.lastMoveText() + ", asking again");
+                    connection.output.write('4');
+                    connection.output.flush();
+                    move = input.readMove();
+                    attempts++;
+                }
+                if (move == ProtocolReader.EOF)
+                    return ProtocolReader.EOF;
+                long latency = System.nanoTime() - sent;
+                recordLatency(latency);
+                if (move < 0 || !isLegal(board, lastMove, move, moves)) {
+                    countIllegalMove();
+                    System.out.println("  Illegal move " + input.lastMoveText() + ": Client forfeits");
+                    connection.sendMove('5', lastMove);
+                    return serverMark;
+                }
+                if (latency / 1_000_000 > moveLimitMillis) {
+                    countOverrun();
+                    System.out.println("  Move " + input.lastMoveText() + " took " + latency / 1_000_000
+                            + " ms: Client loses on time");
+                    connection.sendMove('5', move);
+                    return serverMark;
+                }
+                board.play(move, clientMark);
+            } else {
+                move = opponentMove(engine, engineBoard, board, lastMove, moves);
+                board.play(move, serverMark);
+            }
+            if (engineBoard != null)
+                engineBoard.play(GlobalMove.fromCell(move), clientToMove ? clientMark : serverMark);
+            lastMove = move;
+            awaitingReply = false;
+            clientToMove = !clientToMove;
+
+            int winner = board.checkGlobalWinner();
+            if (winner != LocalBoard.EMPTY || board.isFull()) {
+                connection.sendMove('5', lastMove);
+                return winner;
+            }
+        }
+    }
+
+    private int opponentMove(Player engine, GlobalBoard engineBoard, PackedBoard board, int lastMove, int[] moves) {
+        if (engine != null) {
+            GlobalMove move = engine.findBestMove(engineBoard, lastMove == PackedBoard.NO_MOVE ? null
+                    : GlobalMove.fromCell(lastMove));
+            if (move != null && isLegal(board, lastMove, move.toCell(), moves))
+                return move.toCell();
+            countEngineIllegalMove();
+            System.out.println("  " + (move == null ? "Engine returned no move" : "Illegal engine move " + move)
+                    + ": playing a random move");
+        }
+        int count = board.generateMoves(lastMove, moves);
+        return moves[random.nextInt(count)];
+    }
+
+    private static boolean isLegal(PackedBoard board, int lastMove, int move, int[] moves) {
+        int count = board.generateMoves(lastMove, moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move)
+                return true;
+        }
+        return false;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        if (latencyCount == latencies.length)
+            latencies = Arrays.copyOf(latencies, latencyCount * 2);
+        latencies[latencyCount++] = nanos;
+    }
+
+    private void report() {
+        System.out.println("Client: +" + wins + " =" + draws + " -" + losses + ", " + illegalMoves
+                + " illegal move(s), " + overruns + " over the time limit");
+        if (!randomOpponent)
+            System.out.println("Engine: " + engineIllegalMoves + " null or illegal move(s) replaced by a random move");
+        if (latencyCount == 0)
+            return;
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long latency : sorted)
+            total += latency;
+        System.out.printf("Reply latency over %d moves: mean %.1f ms, median %.1f ms, p95 %.1f ms, max %.1f ms%n",
+                latencyCount, total / 1e6 / latencyCount, sorted[latencyCount / 2] / 1e6,
+                sorted[(int) Math.min(latencyCount - 1, Math.round(latencyCount * 0.95))] / 1e6,
+                sorted[latencyCount - 1] / 1e6);
+    }
+
+    private synchronized void countIllegalMove() {
+        illegalMoves++;
+    }
+
+    private synchronized void countOverrun() {
+        overruns++;
+    }
+
+    private synchronized void countEngineIllegalMove() {
+        engineIllegalMoves++;
+    }
+
+    // Flux et tampons d'envoi d'une connexion.
+    private static final class Connection {
+        final ProtocolReader input;
+        final OutputStream output;
+        private final byte[] boardMessage = new byte[1 + 81 * 2]; // Commande + 81 valeurs et leurs espaces
+        private final byte[] moveMessage = new byte[4]; // Commande + " D6"
+
+        Connection(Socket socket) throws IOException {
+            input = new ProtocolReader(socket.getInputStream());
+            output = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        // Commande suivie des 81 valeurs, ligne par ligne de la grille 9x9 (format de Client.parseBoardState).
+        void sendBoard(char command, PackedBoard board) throws IOException {
+            boardMessage[0] = (byte) command;
+            int index = 1;
+            for (int row = 0; row < 9; row++) {
+                for (int col = 0; col < 9; col++) {
+                    boardMessage[index++] = (byte) ('0' + board.getPiece(PackedBoard.toCell(row / 3, col / 3, row % 3,
+                            col % 3)));
+                    boardMessage[index++] = ' ';
+                }
+            }
+            output.write(boardMessage, 0, index);
+            output.flush();
+        }
+
+        // Commande suivie d'un coup " D6" (" A0" si aucun coup).
+        void sendMove(char command, int cell) throws IOException {
+            moveMessage[0] = (byte) command;
+            moveMessage[1] = ' ';
+            if (cell == PackedBoard.NO_MOVE) {
+                moveMessage[2] = 'A';
+                moveMessage[3] = '0';
+            } else {
+                int board = PackedBoard.boardOf(cell);
+                int local = PackedBoard.localOf(cell);
+                int row = (board / 3) * 3 + local / 3; // Ligne et colonne dans la grille 9x9
+                int col = (board % 3) * 3 + local % 3;
+                moveMessage[2] = (byte) ('A' + col);
+                moveMessage[3] = (byte) ('1' + row);
+            }
+            output.write(moveMessage);
+            output.flush();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * LOCAL TABLES
+ *
+ * Tables précalculées pour les 3^9 = 19 683 états d'un plateau local. Un état est
+ * indexé en base 3 : chaque case vaut 0 (vide), 1 (X) ou 2 (O), la case
+ * ligne * 3 + colonne ayant le poids 3^(ligne * 3 + colonne).
+ *
+ * Pour chaque état, les tables donnent le score heuristique de chaque joueur
+ * (mêmes règles que LocalBoard.heuristicEvaluate), le gagnant, si le plateau est
+ * plein et le masque des cases vides. Elles sont construites au chargement de la
+ * classe; la méthode main les vérifie contre LocalBoard sur tous les états.
+ */
+public class LocalTables {
+
+    public static final int STATES = 19683;
+
+    // POW3[i] = 3^i, poids de la case i dans l'index
+    public static final int[] POW3 = { 1, 3, 9, 27, 81, 243, 729, 2187, 6561 };
+
+    // BASE3[mask] = somme des 3^i pour les bits i du masque
+    private static final int[] BASE3 = new int[512];
+
+    private static final short[] SCORE_X = new short[STATES];
+    private static final short[] SCORE_O = new short[STATES];
+    private static final byte[] WINNER = new byte[STATES];
+    private static final boolean[] FULL = new boolean[STATES];
+    private static final short[] EMPTY_MASK = new short[STATES];
+
+    // Scores d'une ligne locale et du centre (voir EvalParams)
+    private static final int LINE_TWO_SCORE = EvalParams.CURRENT.lineTwoScore;
+    private static final int LINE_ONE_SCORE = EvalParams.CURRENT.lineOneScore;
+    private static final int CENTER_SCORE = EvalParams.CURRENT.centerScore;
+
+    static {
+        for (int mask = 0; mask < 512; mask++) {
+            int value = 0;
+            for (int i = 0; i < 9; i++) {
+                if ((mask & (1 << i)) != 0)
+                    value += POW3[i];
+            }
+            BASE3[mask] = value;
+        }
+
+        for (int index = 0; index < STATES; index++) {
+            int xMask = 0;
+            int oMask = 0;
+            int rest = index;
+            for (int i = 0; i < 9; i++) {
+                int digit = rest % 3;
+                rest /= 3;
+                if (digit == 1)
+                    xMask |= 1 << i;
+                else if (digit == 2)
+                    oMask |= 1 << i;
+            }
+
+            boolean full = (xMask | oMask) == PackedBoard.FULL_MASK;
+            FULL[index] = full;
+            EMPTY_MASK[index] = (short) (PackedBoard.FULL_MASK & ~(xMask | oMask));
+
+            // Même priorité que GlobalBoard : X est vérifié en premier
+            if (PackedBoard.isWinningMask(xMask))
+                WINNER[index] = LocalBoard.X;
+            else if (PackedBoard.isWinningMask(oMask))
+                WINNER[index] = LocalBoard.O;
+            else
+                WINNER[index] = LocalBoard.EMPTY;
+
+            SCORE_X[index] = (short) heuristic(xMask, oMask, full);
+            SCORE_O[index] = (short) heuristic(oMask, xMask, full);
+        }
+    }
+
+    // Index base 3 d'un plateau local à partir des masques des deux joueurs.
+    public static int index(int xMask, int oMask) {
+        return BASE3[xMask] + 2 * BASE3[oMask];
+    }
+
+    // Score heuristique du plateau pour le joueur `piece`.
+    public static int score(int index, int piece) {
+        return (piece == LocalBoard.X) ? SCORE_X[index] : SCORE_O[index];
+    }
+
+    public static int scoreX(int index) {
+        return SCORE_X[index];
+    }
+
+    public static int scoreO(int index) {
+        return SCORE_O[index];
+    }
+
+    public static int winner(int index) {
+        return WINNER[index];
+    }
+
+    public static boolean isFull(int index) {
+        return FULL[index];
+    }
+
+    public static int emptyMask(int index) {
+        return EMPTY_MASK[index];
+    }
+
+    // Reproduit LocalBoard.heuristicEvaluate du point de vue de celui qui possède
+    // `mine`.
+    private static int heuristic(int mine, int theirs, boolean full) {
+        if (PackedBoard.isWinningMask(mine))
+            return 1000;
+        if (PackedBoard.isWinningMask(theirs))
+            return -1000;
+        if (full)
+            return 0;
+
+        int score = 0;
+        for (int line : PackedBoard.LINES) {
+            int m = Integer.bitCount(mine & line);
+            int t = Integer.bitCount(theirs & line);
+            if (t == 0) {
+                if (m == 2)
+                    score += LINE_TWO_SCORE;
+                else if (m == 1)
+                    score += LINE_ONE_SCORE;
+            } else if (m == 0) {
+                if (t == 2)
+                    score -= LINE_TWO_SCORE;
+                else if (t == 1)
+                    score -= LINE_ONE_SCORE;
+            }
+        }
+        // Contrôle du centre
+        if ((mine & 0x010) != 0)
+            score += CENTER_SCORE;
+        else if ((theirs & 0x010) != 0)
+            score -= CENTER_SCORE;
+        return score;
+    }
+
+    // Vérifie les tables contre les méthodes de LocalBoard sur les 19 683 états.
+    public static void main(String[] args) {
+        int errors = 0;
+        for (int index = 0; index < STATES; index++) {
+            LocalBoard board = new LocalBoard();
+            int rest = index;
+            for (int i = 0; i < 9; i++) {
+                int digit = rest % 3;
+                rest /= 3;
+                if (digit != 0)
+                    board.play(new LocalMove(i / 3, i % 3), digit == 1 ? LocalBoard.X : LocalBoard.O);
+            }
+
+            int expectedWinner = board.checkWinner(LocalBoard.X) ? LocalBoard.X
+                    : board.checkWinner(LocalBoard.O) ? LocalBoard.O : LocalBoard.EMPTY;
+            int expectedEmpty = 0;
+            for (LocalMove m : board.getPossibleMoves())
+                expectedEmpty |= 1 << (m.getRow() * 3 + m.getCol());
+
+            if (board.heuristicEvaluate(LocalBoard.X) != SCORE_X[index]
+                    || board.heuristicEvaluate(LocalBoard.O) != SCORE_O[index]
+                    || expectedWinner != WINNER[index]
+                    || board.isFull() != FULL[index]
+                    || expectedEmpty != EMPTY_MASK[index]) {
+                System.err.println("Mismatch for state " + index);
+                errors++;
+            }
+        }
+        System.out.println("Checked " + STATES + " local states, " + errors + " mismatches.");
+        if (errors > 0)
+            System.exit(1);
+    }
+}
@@ -0,0 +1,259 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LOG
+ *
+ * Journalisation asynchrone. Un appel ne fait que copier le gabarit (une chaîne
+ * constante) et ses arguments numériques dans une case d'un tampon circulaire
+ * borné; un thread d'arrière-plan formate les messages et les écrit sur
+ * System.out (DEBUG, INFO) ou System.err (WARN, ERROR), un seul print par lot
+ * (quand le tampon est vide ou que le lot atteint BATCH_CHARS caractères).
+ * Le thread de recherche ne touche jamais la console et n'alloue rien.
+ *
+ * Gabarits : {} est remplacé par l'argument suivant (entier), {m} par une case
+ * 0 à 80 écrite comme un coup ("E5"), {c} par un caractère et {f} par un double
+ * (Double.doubleToRawLongBits) arrondi au dixième. Les messages qui demandent
+ * une concaténation se protègent par `if (Log.DEBUG_ENABLED)`.
+ *
+ * Niveau : -Dlog.level=debug|info|warn|error|tournament (défaut : info).
+ * « tournament » ne garde que WARN et ERROR. LEVEL est un static final, donc le
+ * JIT élimine entièrement les appels sous le niveau. Si le tampon est plein,
+ * le message est perdu (compté) plutôt que de bloquer la recherche.
+ */
+public final class Log {
+
+    public static final int DEBUG = 0;
+    public static final int INFO = 1;
+    public static final int WARN = 2;
+    public static final int ERROR = 3;
+
+    public static final int LEVEL = parseLevel(System.getProperty("log.level", "info"));
+    public static final boolean DEBUG_ENABLED = LEVEL <= DEBUG;
+    public static final boolean INFO_ENABLED = LEVEL <= INFO;
+
+    private static final int CAPACITY = 1 << 12;
+    private static final int MASK = CAPACITY - 1;
+    private static final int MAX_ARGS = 5;
+    private static final int BATCH_CHARS = 1 << 14; // Un lot est écrit dès qu'il atteint cette taille
+
+    // Cases du tampon circulaire, en tableaux parallèles
+    private static final int[] levels = new int[CAPACITY];
+    private static final String[] templates = new String[CAPACITY];
+    private static final int[] argCounts = new int[CAPACITY];
+    private static final long[] args = new long[CAPACITY * MAX_ARGS];
+    // published[slot] = numéro du message écrit dans la case, une fois complet
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+
+    private static final AtomicLong head = new AtomicLong(); // Prochain numéro à réserver
+    private static volatile long consumed; // Messages copiés hors du tampon : leurs cases sont libres
+    private static volatile long written; // Messages imprimés sur la console (voir flush)
+    private static final AtomicLong dropped = new AtomicLong();
+
+    static {
+        for (int i = 0; i < CAPACITY; i++)
+            published.set(i, -1);
+        Thread writer = new Thread(Log::drainLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "log-flush"));
+    }
+
+    private Log() {
+    }
+
+    public static void debug(String template) {
+        if (DEBUG >= LEVEL)
+            publish(DEBUG, template, 0, 0, 0, 0, 0, 0);
+    }
+
+    public static void debug(String template, long a) {
+        if (DEBUG >= LEVEL)
+            publish(DEBUG, template, 1, a, 0, 0, 0, 0);
+    }
+
+    public static void debug(String template, long a, long b) {
+        if (DEBUG >= LEVEL)
+            publish(DEBUG, template, 2, a, b, 0, 0, 0);
+    }
+
+    public static void debug(String template, long a, long b, long c) {
+        if (DEBUG >= LEVEL)
+            publish(DEBUG, template, 3, a, b, c, 0, 0);
+    }
+
+    public static void info(String template) {
+        if (INFO >= LEVEL)
+            publish(INFO, template, 0, 0, 0, 0, 0, 0);
+    }
+
+    public static void info(String template, long a) {
+        if (INFO >= LEVEL)
+            publish(INFO, template, 1, a, 0, 0, 0, 0);
+    }
+
+    public static void info(String template, long a, long b) {
+        if (INFO >= LEVEL)
+            publish(INFO, template, 2, a, b, 0, 0, 0);
+    }
+
+    public static void info(String template, long a, long b, long c) {
+        if (INFO >= LEVEL)
+            publish(INFO, template, 3, a, b, c, 0, 0);
+    }
+
+    public static void info(String template, long a, long b, long c, long d) {
+        if (INFO >= LEVEL)
+            publish(INFO, template, 4, a, b, c, d, 0);
+    }
+
+    public static void info(String template, long a, long b, long c, long d, long e) {
+        if (INFO >= LEVEL)
+            publish(INFO, template, 5, a, b, c, d, e);
+    }
+
+    public static void warn(String template) {
+        if (WARN >= LEVEL)
+            publish(WARN, template, 0, 0, 0, 0, 0, 0);
+    }
+
+    public static void warn(String template, long a) {
+        if (WARN >= LEVEL)
+            publish(WARN, template, 1, a, 0, 0, 0, 0);
+    }
+
+    public static void error(String template) {
+        if (ERROR >= LEVEL)
+            publish(ERROR, template, 0, 0, 0, 0, 0, 0);
+    }
+
+    // Arguments d'un gabarit {f}
+    public static long decimal(double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    // Attend (au plus une seconde) que les messages déjà publiés soient imprimés.
+    public static void flush() {
+        long target = head.get();
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (written < target && System.nanoTime() < deadline)
+            LockSupport.parkNanos(100_000);
+    }
+
+    // Nombre de messages perdus parce que le tampon était plein.
+    public static long droppedCount() {
+        return dropped.get();
+    }
+
+    private static void publish(int level, String template, int count, long a, long b, long c, long d, long e) {
+        // Réserver une case; abandonner si le thread d'écriture a un tampon de retard
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - consumed >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & MASK;
+        levels[slot] = level;
+        templates[slot] = template;
+        argCounts[slot] = count;
+        int base = slot * MAX_ARGS;
+        args[base] = a;
+        args[base + 1] = b;
+        args[base + 2] = c;
+        args[base + 3] = d;
+        args[base + 4] = e;
+        published.setRelease(slot, sequence);
+    }
+
+    private static void drainLoop() {
+        StringBuilder out = new StringBuilder(BATCH_CHARS + 256);
+        StringBuilder err = new StringBuilder(256);
+        long next = 0;
+        long reportedDrops = 0;
+        while (true) {
+            int slot = (int) next & MASK;
+            boolean available = published.getAcquire(slot) == next;
+            if (available) {
+                StringBuilder target = levels[slot] >= WARN ? err : out;
+                format(target, templates[slot], slot * MAX_ARGS, argCounts[slot]);
+                target.append(System.lineSeparator());
+                templates[slot] = null;
+                next++;
+                if ((next & 63) == 0)
+                    consumed = next; // Libère les cases sans attendre la fin du lot
+                if (out.length() + err.length() < BATCH_CHARS)
+                    continue;
+            }
+
+            // Tampon vide ou lot plein : écrire le lot courant
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                err.append("WARNING: log buffer full, ").append(drops - reportedDrops)
+                        .append(" message(s) dropped").append(System.lineSeparator());
+                reportedDrops = drops;
+            }
+            if (err.length() > 0) {
+                System.err.print(err);
+                System.err.flush();
+                err.setLength(0);
+            }
+            if (out.length() > 0) {
+                System.out.print(out);
+                System.out.flush();
+                out.setLength(0);
+            }
+            consumed = next;
+            written = next;
+            if (!available)
+                LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    private static void format(StringBuilder out, String template, int base, int count) {
+        int arg = 0;
+        int length = template.length();
+        for (int i = 0; i < length; i++) {
+            char ch = template.charAt(i);
+            if (ch == '{' && arg < count && i + 1 < length) {
+                char kind = template.charAt(i + 1);
+                if (kind == '}') {
+                    out.append(args[base + arg++]);
+                    i++;
+                    continue;
+                }
+                if (i + 2 < length && template.charAt(i + 2) == '}' && (kind == 'm' || kind == 'c' || kind == 'f')) {
+                    long value = args[base + arg++];
+                    if (kind == 'm')
+                        out.append(value == PackedBoard.NO_MOVE ? "-"
+                                : CPUPlayer.moveToString(GlobalMove.fromCell((int) value)));
+                    else if (kind == 'c')
+                        out.append((char) value);
+                    else
+                        out.append(Math.round(Double.longBitsToDouble(value) * 10) / 10.0);
+                    i += 2;
+                    continue;
+                }
+            }
+            out.append(ch);
+        }
+    }
+
+    private static int parseLevel(String name) {
+        switch (name.trim().toLowerCase()) {
+            case "debug":
+                return DEBUG;
+            case "warn":
+            case "tournament":
+                return WARN;
+            case "error":
+                return ERROR;
+            default:
+                return INFO;
+        }
+    }
+}
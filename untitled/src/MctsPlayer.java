@@ -0,0 +1,270 @@
+/**
+ * MCTS PLAYER
+ *
+ * Moteur Monte Carlo Tree Search (sélection UCT et parties aléatoires jusqu'à la
+ * fin), alternative à l'alpha-beta de CPUPlayer.
+ *
+ * L'arbre est stocké dans des tableaux primitifs alloués une seule fois (aucun
+ * objet par noeud). Les enfants d'un noeud sont créés ensemble et occupent des
+ * cases consécutives. Les parties aléatoires se jouent sur une copie du plateau
+ * réutilisée, sans allocation. Entre deux coups, le sous-arbre correspondant au
+ * coup de l'adversaire est conservé.
+ */
+public class MctsPlayer implements Player {
+
+    private static final int UNEXPANDED = -1;
+    private static final int NO_NODE = -1;
+
+    private final int aiMark;
+    private final int opponentMark;
+    private final long timeLimitMillis;
+    private final double exploration;
+
+    // Arène des noeuds
+    private final int capacity;
+    private final int[] parent;
+    private final int[] firstChild;
+    private final byte[] childCount;
+    private final byte[] move; // Case jouée pour arriver au noeud
+    private final byte[] mover; // Joueur qui a joué ce coup
+    private final int[] visits;
+    private final float[] wins; // Résultats du point de vue de `mover` (nulle = 0.5)
+    private int nodeCount;
+
+    // Réutilisation de l'arbre : noeud atteint après notre dernier coup
+    private int reuseNode = NO_NODE;
+    private long reuseHash;
+
+    private final PackedBoard rootBoard = new PackedBoard();
+    private final PackedBoard scratch = new PackedBoard();
+    private final int[] moveBuffer = new int[81];
+    private long randomState = 0x9E3779B97F4A7C15L;
+
+    // Mesures de la dernière recherche
+    private long lastPlayouts;
+    private long lastElapsedMillis;
+
+    public MctsPlayer(int aiMark) {
+        this(aiMark, new SearchConfig());
+    }
+
+    public MctsPlayer(int aiMark, SearchConfig config) {
+        this.aiMark = aiMark;
+        this.opponentMark = (aiMark == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+        this.timeLimitMillis = config.timeLimitMillis;
+        this.exploration = config.mctsExploration;
+        this.capacity = config.mctsArenaNodes;
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        childCount = new byte[capacity];
+        move = new byte[capacity];
+        mover = new byte[capacity];
+        visits = new int[capacity];
+        wins = new float[capacity];
+    }
+
+    @Override
+    public GlobalMove findBestMove(GlobalBoard board, GlobalMove lastOpponentMove, long startNanos) {
+        long deadline = startNanos + timeLimitMillis * 1_000_000;
+        rootBoard.copyFrom(board.getPackedBoard());
+        int rootLastMove = (lastOpponentMove == null) ? PackedBoard.NO_MOVE : lastOpponentMove.toCell();
+
+        Log.info("AI ({c}) thinking (MCTS)...", aiMark == LocalBoard.X ? 'X' : 'O');
+
+        int root = reuseRoot(rootLastMove);
+        if (root == NO_NODE) {
+            nodeCount = 0;
+            root = newNode(NO_NODE, rootLastMove, opponentMark);
+        } else {
+            Log.info("  Reusing subtree with {} visits", visits[root]);
+        }
+
+        long playouts = 0;
+        while (true) {
+            if ((playouts & 255) == 0 && System.nanoTime() - deadline >= 0)
+                break;
+            runPlayout(root, rootLastMove);
+            playouts++;
+        }
+
+        // Choisir l'enfant le plus visité
+        int bestChild = NO_NODE;
+        for (int c = firstChild[root], end = c + childCount[root]; c < end; c++) {
+            if (bestChild == NO_NODE || visits[c] > visits[bestChild])
+                bestChild = c;
+        }
+
+        lastPlayouts = playouts;
+        lastElapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        Log.info("  Playouts: {} in {} ms ({} playouts/s), tree nodes: {}", playouts, lastElapsedMillis,
+                getPlayoutsPerSecond(), nodeCount);
+
+        if (bestChild == NO_NODE) {
+            // Pas le temps d'étendre la racine : premier coup légal
+            int count = rootBoard.generateMoves(rootLastMove, moveBuffer);
+            if (count == 0) {
+                Log.error("CRITICAL WARNING: No possible moves available for AI!");
+                return null;
+            }
+            reuseNode = NO_NODE;
+            return GlobalMove.fromCell(moveBuffer[0]);
+        }
+
+        Log.info("  Best move visits: {}, win rate: {}%", visits[bestChild],
+                Math.round(100.0 * wins[bestChild] / Math.max(1, visits[bestChild])));
+
+        // Garder le sous-arbre pour le prochain appel
+        reuseNode = bestChild;
+        reuseHash = rootBoard.getHash() ^ Zobrist.pieceKey(move[bestChild], aiMark);
+
+        GlobalMove chosen = GlobalMove.fromCell(move[bestChild]);
+        Log.info("AI chose move: {m}", move[bestChild]);
+        return chosen;
+    }
+
+    // Retrouve le noeud correspondant au coup de l'adversaire sous notre dernier coup.
+    private int reuseRoot(int rootLastMove) {
+        if (reuseNode == NO_NODE || rootLastMove == PackedBoard.NO_MOVE || nodeCount > capacity * 3 / 4)
+            return NO_NODE;
+        // La position reçue doit être celle laissée par notre coup, plus le coup adverse
+        if ((rootBoard.getHash() ^ Zobrist.pieceKey(rootLastMove, opponentMark)) != reuseHash)
+            return NO_NODE;
+        int first = firstChild[reuseNode];
+        if (first == UNEXPANDED)
+            return NO_NODE;
+        for (int c = first; c < first + childCount[reuseNode]; c++) {
+            if (move[c] == rootLastMove) {
+                parent[c] = NO_NODE;
+                return c;
+            }
+        }
+        return NO_NODE;
+    }
+
+    // Une itération : sélection, expansion, partie aléatoire et rétropropagation.
+    private void runPlayout(int root, int rootLastMove) {
+        scratch.copyFrom(rootBoard);
+        int node = root;
+        int lastMove = rootLastMove;
+        int result;
+
+        while (true) {
+            int winner = scratch.checkGlobalWinner();
+            if (winner != LocalBoard.EMPTY || scratch.isDeadDraw()) {
+                result = winner;
+                break;
+            }
+            if (firstChild[node] == UNEXPANDED) {
+                // Étendre au deuxième passage (la racine tout de suite)
+                if ((visits[node] > 0 || node == root) && expand(node, lastMove)) {
+                    node = firstChild[node];
+                    scratch.play(move[node], mover[node]);
+                    lastMove = move[node];
+                }
+                result = randomPlayout(lastMove, other(mover[node]));
+                break;
+            }
+            node = selectChild(node);
+            scratch.play(move[node], mover[node]);
+            lastMove = move[node];
+        }
+
+        // Rétropropagation jusqu'à la racine
+        for (int n = node; n != NO_NODE; n = parent[n]) {
+            visits[n]++;
+            if (result == mover[n])
+                wins[n] += 1f;
+            else if (result == LocalBoard.EMPTY)
+                wins[n] += 0.5f;
+            if (n == root)
+                break;
+        }
+    }
+
+    // Sélection UCT parmi les enfants d'un noeud.
+    private int selectChild(int node) {
+        int first = firstChild[node];
+        int end = first + childCount[node];
+        double logParent = Math.log(visits[node]);
+        int best = first;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int c = first; c < end; c++) {
+            int n = visits[c];
+            if (n == 0)
+                return c;
+            double value = wins[c] / n + exploration * Math.sqrt(logParent / n);
+            if (value > bestValue) {
+                bestValue = value;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    // Crée tous les enfants d'un noeud. Renvoie false si l'arène est pleine.
+    private boolean expand(int node, int lastMove) {
+        int count = scratch.generateMoves(lastMove, moveBuffer);
+        if (count == 0 || nodeCount + count > capacity)
+            return false;
+        int childMover = other(mover[node]);
+        int first = nodeCount;
+        for (int i = 0; i < count; i++) {
+            newNode(node, moveBuffer[i], childMover);
+        }
+        firstChild[node] = first;
+        childCount[node] = (byte) count;
+        return true;
+    }
+
+    private int newNode(int parentNode, int cell, int moverMark) {
+        int node = nodeCount++;
+        parent[node] = parentNode;
+        firstChild[node] = UNEXPANDED;
+        childCount[node] = 0;
+        move[node] = (byte) cell;
+        mover[node] = (byte) moverMark;
+        visits[node] = 0;
+        wins[node] = 0f;
+        return node;
+    }
+
+    // Joue des coups aléatoires sur `scratch` jusqu'à la fin. Renvoie le gagnant
+    // (ou EMPTY pour une nulle, dès qu'elle est certaine).
+    private int randomPlayout(int lastMove, int side) {
+        while (true) {
+            int winner = scratch.checkGlobalWinner();
+            if (winner != LocalBoard.EMPTY)
+                return winner;
+            if (scratch.isDeadDraw())
+                return LocalBoard.EMPTY;
+            int count = scratch.generateMoves(lastMove, moveBuffer);
+            int cell = moveBuffer[nextRandom(count)];
+            scratch.play(cell, side);
+            lastMove = cell;
+            side = other(side);
+        }
+    }
+
+    // Générateur xorshift (sans allocation), renvoie un entier dans [0, bound).
+    private int nextRandom(int bound) {
+        long x = randomState;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        randomState = x;
+        return (int) ((x >>> 33) % bound);
+    }
+
+    private static int other(int mark) {
+        return (mark == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+    }
+
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    // Parties aléatoires par seconde lors de la dernière recherche.
+    public long getPlayoutsPerSecond() {
+        return lastPlayouts * 1000 / Math.max(1, lastElapsedMillis);
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * META TABLES
+ *
+ * Tables précalculées pour les 4^9 = 262 144 états du plateau global, vu comme une
+ * grille 3x3 de plateaux locaux. Chaque plateau est codé sur 2 bits : 0 (ouvert),
+ * 1 (gagné par X), 2 (gagné par O) ou 3 (plein, nul); le plateau b occupe les
+ * bits 2b et 2b + 1 de l'index.
+ *
+ * Pour chaque état, les tables donnent le gagnant global, les termes globaux de
+ * l'évaluation (plateaux gagnés pondérés par BOARD_WEIGHTS et lignes à deux
+ * plateaux gagnés dont le troisième est ouvert) et si X et O peuvent encore
+ * gagner. Ce dernier drapeau est calculé à rebours, des états sans plateau ouvert
+ * vers l'état vide : un joueur peut gagner s'il a déjà gagné, ou si un plateau
+ * ouvert, une fois gagné par lui, mène à un état où il peut gagner. Quand personne
+ * ne peut plus gagner, la partie est nulle d'avance.
+ */
+public class MetaTables {
+
+    public static final int STATES = 1 << 18;
+
+    private static final int OPEN = 0;
+    private static final int X_WON = 1;
+    private static final int O_WON = 2;
+    private static final int DRAWN = 3;
+
+    // SPREAD[mask] place le bit b du masque au bit 2b
+    private static final int[] SPREAD = new int[512];
+
+    private static final int[] SCORE_X = new int[STATES];
+    private static final byte[] WINNER = new byte[STATES];
+    private static final byte[] WINNABLE = new byte[STATES]; // Bit 0 : X peut gagner, bit 1 : O peut gagner
+
+    static {
+        for (int mask = 0; mask < 512; mask++) {
+            int spread = 0;
+            for (int b = 0; b < 9; b++) {
+                if ((mask & (1 << b)) != 0)
+                    spread |= 1 << (2 * b);
+            }
+            SPREAD[mask] = spread;
+        }
+
+        for (int index = 0; index < STATES; index++) {
+            int xMask = 0;
+            int oMask = 0;
+            int closed = 0;
+            for (int b = 0; b < 9; b++) {
+                int state = (index >> (2 * b)) & 3;
+                if (state == X_WON)
+                    xMask |= 1 << b;
+                else if (state == O_WON)
+                    oMask |= 1 << b;
+                if (state != OPEN)
+                    closed |= 1 << b;
+            }
+
+            // Même priorité que GlobalBoard : X est vérifié en premier
+            if (PackedBoard.isWinningMask(xMask))
+                WINNER[index] = LocalBoard.X;
+            else if (PackedBoard.isWinningMask(oMask))
+                WINNER[index] = LocalBoard.O;
+            else
+                WINNER[index] = LocalBoard.EMPTY;
+
+            int score = 0;
+            for (int b = 0; b < 9; b++) {
+                int weight = GlobalBoard.BOARD_WEIGHTS[b / 3][b % 3];
+                if ((xMask & (1 << b)) != 0)
+                    score += GlobalBoard.LOCAL_WIN_SCORE * weight;
+                else if ((oMask & (1 << b)) != 0)
+                    score -= GlobalBoard.LOCAL_WIN_SCORE * weight;
+            }
+            score += (twoInRow(xMask, closed) - twoInRow(oMask, closed)) * GlobalBoard.GLOBAL_TWO_IN_ROW_SCORE;
+            SCORE_X[index] = score;
+        }
+
+        // Analyse à rebours : un état dépend des états qui ont un plateau ouvert de
+        // moins, donc on traite les états par nombre croissant de plateaux ouverts.
+        for (int open = 0; open <= 9; open++) {
+            for (int index = 0; index < STATES; index++) {
+                if (openCount(index) != open)
+                    continue;
+                int flags = 0;
+                if (WINNER[index] == LocalBoard.X || PackedBoard.isWinningMask(maskOf(index, X_WON)))
+                    flags |= 1;
+                if (WINNER[index] == LocalBoard.O || PackedBoard.isWinningMask(maskOf(index, O_WON)))
+                    flags |= 2;
+                for (int b = 0; b < 9 && flags != 3; b++) {
+                    if (((index >> (2 * b)) & 3) == OPEN) {
+                        flags |= WINNABLE[index | (X_WON << (2 * b))] & 1;
+                        flags |= WINNABLE[index | (O_WON << (2 * b))] & 2;
+                    }
+                }
+                WINNABLE[index] = (byte) flags;
+            }
+        }
+    }
+
+    // Index de l'état global à partir des masques de PackedBoard.
+    public static int index(int metaX, int metaO, int metaClosed) {
+        int drawn = metaClosed & ~(metaX | metaO);
+        return SPREAD[metaX | drawn] | (SPREAD[metaO | drawn] << 1);
+    }
+
+    public static int winner(int index) {
+        return WINNER[index];
+    }
+
+    // Termes globaux de l'évaluation du point de vue de X.
+    public static int scoreX(int index) {
+        return SCORE_X[index];
+    }
+
+    public static boolean isWinnableBy(int index, int mark) {
+        return (WINNABLE[index] & (mark == LocalBoard.X ? 1 : 2)) != 0;
+    }
+
+    // Vrai si plus personne ne peut aligner trois plateaux : la partie est nulle.
+    public static boolean isDeadDraw(int index) {
+        return WINNABLE[index] == 0;
+    }
+
+    private static int openCount(int index) {
+        int count = 0;
+        for (int b = 0; b < 9; b++) {
+            if (((index >> (2 * b)) & 3) == OPEN)
+                count++;
+        }
+        return count;
+    }
+
+    private static int maskOf(int index, int state) {
+        int mask = 0;
+        for (int b = 0; b < 9; b++) {
+            if (((index >> (2 * b)) & 3) == state)
+                mask |= 1 << b;
+        }
+        return mask;
+    }
+
+    // Lignes avec deux plateaux gagnés par le joueur et le troisième encore ouvert.
+    private static int twoInRow(int won, int closed) {
+        int count = 0;
+        for (int line : PackedBoard.LINES) {
+            if (Integer.bitCount(won & line) == 2 && (line & ~won & ~closed) != 0)
+                count++;
+        }
+        return count;
+    }
+
+    // Vérifie les tables contre GlobalBoard (termes globaux) et contre un test
+    // direct des lignes (drapeaux « peut encore gagner ») sur tous les états.
+    public static void main(String[] args) {
+        int errors = 0;
+        int deadDraws = 0;
+        for (int index = 0; index < STATES; index++) {
+            int xMask = maskOf(index, X_WON);
+            int oMask = maskOf(index, O_WON);
+            int drawn = maskOf(index, DRAWN);
+
+            // Un plateau gagné sur une ligne de trois cases, un nul sur un plateau plein
+            GlobalBoard board = new GlobalBoard();
+            for (int b = 0; b < 9; b++) {
+                int gRow = b / 3;
+                int gCol = b % 3;
+                if ((xMask & (1 << b)) != 0 || (oMask & (1 << b)) != 0) {
+                    int piece = (xMask & (1 << b)) != 0 ? LocalBoard.X : LocalBoard.O;
+                    for (int c = 0; c < 3; c++)
+                        board.setLocalBoardPiece(gRow, gCol, 0, c, piece);
+                } else if ((drawn & (1 << b)) != 0) {
+                    int[] drawPattern = { LocalBoard.X, LocalBoard.O, LocalBoard.X, LocalBoard.X, LocalBoard.O,
+                            LocalBoard.O, LocalBoard.O, LocalBoard.X, LocalBoard.X };
+                    for (int c = 0; c < 9; c++)
+                        board.setLocalBoardPiece(gRow, gCol, c / 3, c % 3, drawPattern[c]);
+                }
+            }
+            PackedBoard packed = board.getPackedBoard();
+            int metaIndex = index(xMask, oMask, xMask | oMask | drawn);
+            if (metaIndex != index || packed.getMetaIndex() != index) {
+                System.err.println("Index mismatch for state " + index);
+                errors++;
+                continue;
+            }
+
+            // Les plateaux fermés n'ont plus de terme local et les plateaux ouverts sont
+            // vides : l'évaluation complète se réduit aux termes globaux (hors fin de partie).
+            boolean finished = winner(index) != LocalBoard.EMPTY || (xMask | oMask | drawn) == PackedBoard.FULL_MASK
+                    || isDeadDraw(index);
+            if (packed.checkGlobalWinner() != winner(index)
+                    || (!finished && packed.evaluateFull(LocalBoard.X) != scoreX(index))) {
+                System.err.println("Score mismatch for state " + index);
+                errors++;
+            }
+
+            boolean xCanWin = false;
+            boolean oCanWin = false;
+            for (int line : PackedBoard.LINES) {
+                if ((line & (oMask | drawn)) == 0)
+                    xCanWin = true;
+                if ((line & (xMask | drawn)) == 0)
+                    oCanWin = true;
+            }
+            if (isWinnableBy(index, LocalBoard.X) != xCanWin || isWinnableBy(index, LocalBoard.O) != oCanWin) {
+                System.err.println("Winnable mismatch for state " + index);
+                errors++;
+            }
+            if (isDeadDraw(index))
+                deadDraws++;
+        }
+        System.out.println("Checked " + STATES + " meta states, " + deadDraws + " dead draws, " + errors
+                + " mismatches.");
+        if (errors > 0)
+            System.exit(1);
+    }
+}
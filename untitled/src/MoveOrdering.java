@@ -0,0 +1,138 @@
+import java.util.Arrays;
+
+/**
+ * MOVE ORDERING
+ *
+ * Trie les coups d'un noeud pour que l'alpha-beta essaie les meilleurs en premier :
+ * 1. le coup de la table de transposition (variation principale),
+ * 2. les coups qui gagnent un plateau local,
+ * 3. les coups qui bloquent un plateau local gagnant pour l'adversaire,
+ * 4. les coups « killer » qui ont causé une coupure au même ply,
+ * 5. les autres coups selon leur score d'historique (par joueur et par case).
+ *
+ * Les compteurs de coupures permettent de mesurer la qualité du tri : plus la part
+ * de coupures causées par le premier coup est proche de 1, plus on approche du
+ * meilleur cas de l'alpha-beta.
+ */
+public class MoveOrdering {
+
+    public static final int MAX_PLY = 128;
+
+    private static final int TT_MOVE_SCORE = 1_000_000;
+    private static final int LOCAL_WIN_SCORE = 500_000;
+    private static final int LOCAL_BLOCK_SCORE = 400_000;
+    private static final int KILLER_1_SCORE = 300_000;
+    private static final int KILLER_2_SCORE = 290_000;
+    private static final int HISTORY_MAX = 200_000;
+
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[2][81]; // [0] = X, [1] = O
+    private final int[] scores = new int[81];
+
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    public MoveOrdering() {
+        clearKillers();
+    }
+
+    // Nouvelle recherche : efface les killers, vieillit l'historique et les compteurs.
+    public void newSearch() {
+        clearKillers();
+        for (int[] side : history) {
+            for (int cell = 0; cell < 81; cell++) {
+                side[cell] >>= 1;
+            }
+        }
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+    }
+
+    // Oublie tout ce qui a été appris (killers, historique, compteurs).
+    public void clear() {
+        newSearch();
+        for (int[] side : history) {
+            Arrays.fill(side, 0);
+        }
+    }
+
+    private void clearKillers() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = PackedBoard.NO_MOVE;
+            plyKillers[1] = PackedBoard.NO_MOVE;
+        }
+    }
+
+    // Trie les coups sur place, du plus prometteur au moins prometteur.
+    public void order(PackedBoard board, int[] moves, int size, int ttMove, int ply, int mark) {
+        int side = (mark == LocalBoard.X) ? 0 : 1;
+        int killer1 = ply < MAX_PLY ? killers[ply][0] : PackedBoard.NO_MOVE;
+        int killer2 = ply < MAX_PLY ? killers[ply][1] : PackedBoard.NO_MOVE;
+
+        for (int i = 0; i < size; i++) {
+            int cell = moves[i];
+            int b = PackedBoard.boardOf(cell);
+            int bit = 1 << PackedBoard.localOf(cell);
+            int mine = (mark == LocalBoard.X) ? board.getXMask(b) : board.getOMask(b);
+            int theirs = (mark == LocalBoard.X) ? board.getOMask(b) : board.getXMask(b);
+
+            int score;
+            if (cell == ttMove)
+                score = TT_MOVE_SCORE;
+            else if (PackedBoard.isWinningMask(mine | bit))
+                score = LOCAL_WIN_SCORE;
+            else if (PackedBoard.isWinningMask(theirs | bit))
+                score = LOCAL_BLOCK_SCORE;
+            else if (cell == killer1)
+                score = KILLER_1_SCORE;
+            else if (cell == killer2)
+                score = KILLER_2_SCORE;
+            else
+                score = history[side][cell];
+            scores[i] = score;
+        }
+
+        // Tri par insertion (au plus 81 coups), stable pour les scores égaux
+        for (int i = 1; i < size; i++) {
+            int score = scores[i];
+            int move = moves[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                scores[j + 1] = scores[j];
+                moves[j + 1] = moves[j];
+                j--;
+            }
+            scores[j + 1] = score;
+            moves[j + 1] = move;
+        }
+    }
+
+    // Enregistre un coup qui a causé une coupure. `moveIndex` est sa position dans
+    // la liste triée.
+    public void recordCutoff(int cell, int ply, int depth, int mark, int moveIndex) {
+        cutoffs++;
+        if (moveIndex == 0)
+            firstMoveCutoffs++;
+
+        if (ply < MAX_PLY && killers[ply][0] != cell) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = cell;
+        }
+
+        int side = (mark == LocalBoard.X) ? 0 : 1;
+        history[side][cell] = Math.min(HISTORY_MAX - 1, history[side][cell] + depth * depth);
+    }
+
+    public long getCutoffs() {
+        return cutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return firstMoveCutoffs;
+    }
+
+    // Part des coupures causées par le premier coup essayé (0 à 1).
+    public double firstMoveCutoffRate() {
+        return cutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / cutoffs;
+    }
+}
@@ -0,0 +1,184 @@
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * OPENING BOOK
+ *
+ * Livre d'ouvertures précalculé (voir OpeningBookGenerator) : clé de position →
+ * meilleur coup et score. Le fichier est projeté en mémoire (mmap), donc
+ * l'ouverture ne lit rien et une recherche ne touche que quelques pages.
+ *
+ * Les 8 symétries du carré (rotations et réflexions) conservent les règles :
+ * transformer la grille 9x9 transforme de la même façon les plateaux et les cases
+ * locales, donc aussi le plateau imposé. Une position est rangée sous sa clé
+ * canonique (la plus petite des 8 clés transformées) et son coup est exprimé
+ * dans cette orientation; les positions symétriques partagent donc une entrée.
+ *
+ * Format : "OBK1", nombre d'entrées (int), puis les entrées triées par clé.
+ * Chaque entrée fait 12 octets : clé (long), puis score << 8 | coup (int).
+ */
+public class OpeningBook {
+
+    public static final int MISS = -1;
+
+    private static final int MAGIC = 0x4F424B31; // "OBK1"
+    private static final int HEADER_BYTES = 8;
+    private static final int ENTRY_BYTES = 12;
+
+    // TRANSFORMS[t][cell] = case correspondante après la symétrie t
+    static final int[][] TRANSFORMS = new int[8][81];
+    // INVERSES[t][cell] = case d'origine d'une case transformée par t
+    static final int[][] INVERSES = new int[8][81];
+
+    static {
+        for (int t = 0; t < 8; t++) {
+            for (int cell = 0; cell < 81; cell++) {
+                int board = PackedBoard.boardOf(cell);
+                int local = PackedBoard.localOf(cell);
+                int row = (board / 3) * 3 + local / 3; // Ligne et colonne dans la grille 9x9
+                int col = (board % 3) * 3 + local % 3;
+                for (int r = 0; r < (t & 3); r++) { // Rotations d'un quart de tour
+                    int previousRow = row;
+                    row = col;
+                    col = 8 - previousRow;
+                }
+                if (t >= 4) // Réflexion horizontale
+                    col = 8 - col;
+                int image = PackedBoard.toCell(row / 3, col / 3, row % 3, col % 3);
+                TRANSFORMS[t][cell] = image;
+                INVERSES[t][image] = cell;
+            }
+        }
+    }
+
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.size = buffer.getInt(4);
+    }
+
+    /**
+     * Projette le livre en mémoire. Renvoie null si le fichier n'existe pas ou
+     * n'est pas un livre valide.
+     */
+    public static OpeningBook open(String path) {
+        if (path == null || path.isEmpty())
+            return null;
+        Path file = Path.of(path);
+        if (!Files.isRegularFile(file)) {
+            Log.info("No opening book at " + file.toAbsolutePath());
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC
+                    || channel.size() != HEADER_BYTES + (long) buffer.getInt(4) * ENTRY_BYTES) {
+                Log.warn("WARNING: invalid opening book " + file);
+                return null;
+            }
+            OpeningBook book = new OpeningBook(buffer);
+            Log.info("Opening book: {} positions", book.size());
+            return book;
+        } catch (IOException e) {
+            Log.warn("WARNING: could not open opening book " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Cherche la position et renvoie le coup du livre dans l'orientation de la
+     * position (case 0 à 80), ou MISS.
+     */
+    public int lookup(PackedBoard board, int sideToMove, int lastMove) {
+        int symmetry = canonicalSymmetry(board, sideToMove, lastMove);
+        int index = find(symmetryKey(board, sideToMove, lastMove, symmetry));
+        if (index < 0)
+            return MISS;
+        int move = buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + 8) & 0xFF;
+        return INVERSES[symmetry][move];
+    }
+
+    // Score enregistré (du point de vue du joueur qui doit jouer), ou 0 si absent.
+    public int score(PackedBoard board, int sideToMove, int lastMove) {
+        int index = find(canonicalKey(board, sideToMove, lastMove));
+        return index < 0 ? 0 : buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + 8) >> 8;
+    }
+
+    // Recherche dichotomique de la clé; renvoie l'index de l'entrée ou -1.
+    private int find(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = buffer.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (midKey < key)
+                low = mid + 1;
+            else if (midKey > key)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    // Clé Zobrist de la position transformée par la symétrie t, sans construire le
+    // plateau transformé. Les plateaux fermés le restent, donc le plateau imposé
+    // est simplement transformé.
+    static long symmetryKey(PackedBoard board, int sideToMove, int lastMove, int t) {
+        int[] transform = TRANSFORMS[t];
+        long key = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            int piece = board.getPiece(cell);
+            if (piece != LocalBoard.EMPTY)
+                key ^= Zobrist.pieceKey(transform[cell], piece);
+        }
+        int forced = board.forcedBoard(lastMove);
+        int transformedForced = forced < 0 ? -1 : PackedBoard.boardOf(transform[forced * 9 + 4]);
+        return key ^ Zobrist.stateKey(sideToMove, transformedForced);
+    }
+
+    // Symétrie qui donne la plus petite clé (orientation canonique).
+    static int canonicalSymmetry(PackedBoard board, int sideToMove, int lastMove) {
+        int best = 0;
+        long bestKey = symmetryKey(board, sideToMove, lastMove, 0);
+        for (int t = 1; t < 8; t++) {
+            long key = symmetryKey(board, sideToMove, lastMove, t);
+            if (key < bestKey) {
+                bestKey = key;
+                best = t;
+            }
+        }
+        return best;
+    }
+
+    static long canonicalKey(PackedBoard board, int sideToMove, int lastMove) {
+        return symmetryKey(board, sideToMove, lastMove, canonicalSymmetry(board, sideToMove, lastMove));
+    }
+
+    /**
+     * Écrit un livre. `keys` sont des clés canoniques triées sans doublon;
+     * `moves[i]` est exprimé dans l'orientation canonique.
+     */
+    static void write(OutputStream stream, long[] keys, int[] moves, int[] scores, int count) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeLong(keys[i]);
+            out.writeInt((scores[i] << 8) | (moves[i] & 0xFF));
+        }
+        out.flush();
+    }
+}
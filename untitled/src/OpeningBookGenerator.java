@@ -0,0 +1,101 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * OPENING BOOK GENERATOR
+ *
+ * Construit le livre d'ouvertures hors ligne : toutes les positions des K premiers
+ * coups (une seule par classe de symétrie) sont cherchées à profondeur fixe, et le
+ * meilleur coup de chacune est écrit dans le fichier lu par OpeningBook.
+ *
+ * La recherche est celle de CPUPlayer (mêmes options -Dsearch.*), sans limite de
+ * temps. La table de transposition est gardée d'une position à l'autre.
+ *
+ * Utilisation : java OpeningBookGenerator [plies] [profondeur] [fichier]
+ * (défaut : 3 10 opening_book.bin)
+ */
+public class OpeningBookGenerator {
+
+    // Une position à chercher : le plateau, le joueur qui doit jouer et le dernier coup.
+    private record Position(PackedBoard board, int sideToMove, int lastMove) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int plies = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path output = Path.of(args.length > 2 ? args[2] : SearchConfig.DEFAULT_BOOK_PATH);
+
+        SearchConfig config = SearchConfig.fromSystemProperties();
+        TranspositionTable transpositionTable = new TranspositionTable(config.ttSizeMb);
+        SearchWorker[] workers = {
+                new SearchWorker(new TimeManager(config), false, LocalBoard.X, config, transpositionTable),
+                new SearchWorker(new TimeManager(config), false, LocalBoard.O, config, transpositionTable) };
+
+        TreeMap<Long, Integer> entries = new TreeMap<>(); // Clé canonique -> score << 8 | coup
+        List<Position> level = new ArrayList<>();
+        level.add(new Position(new PackedBoard(), LocalBoard.X, PackedBoard.NO_MOVE));
+        int[] moves = new int[81];
+        long start = System.currentTimeMillis();
+
+        for (int ply = 0; ply < plies; ply++) {
+            List<Position> next = new ArrayList<>();
+            for (Position position : level) {
+                PackedBoard board = position.board();
+                int side = position.sideToMove();
+                int symmetry = OpeningBook.canonicalSymmetry(board, side, position.lastMove());
+                long key = OpeningBook.symmetryKey(board, side, position.lastMove(), symmetry);
+                if (entries.containsKey(key))
+                    continue; // Position symétrique d'une position déjà cherchée
+
+                SearchWorker worker = workers[side == LocalBoard.X ? 0 : 1];
+                transpositionTable.newSearch();
+                worker.newSearch();
+                int score = 0;
+                for (int d = 1; d <= depth; d++) {
+                    score = worker.searchDepth(board, position.lastMove(), d, score);
+                }
+                int bestMove = worker.rootBestMove;
+                if (bestMove == PackedBoard.NO_MOVE)
+                    continue;
+                entries.put(key, (score << 8) | OpeningBook.TRANSFORMS[symmetry][bestMove]);
+
+                // Positions suivantes
+                if (ply + 1 < plies && board.checkGlobalWinner() == LocalBoard.EMPTY) {
+                    int count = board.generateMoves(position.lastMove(), moves);
+                    int opponent = (side == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+                    for (int i = 0; i < count; i++) {
+                        PackedBoard child = new PackedBoard(board);
+                        child.play(moves[i], side);
+                        next.add(new Position(child, opponent, moves[i]));
+                    }
+                }
+            }
+            System.out.println("Ply " + ply + ": " + entries.size() + " positions so far ("
+                    + (System.currentTimeMillis() - start) / 1000 + " s)");
+            level = next;
+        }
+
+        int count = entries.size();
+        long[] keys = new long[count];
+        int[] bestMoves = new int[count];
+        int[] scores = new int[count];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : entries.entrySet()) {
+            keys[i] = entry.getKey();
+            bestMoves[i] = entry.getValue() & 0xFF;
+            scores[i] = entry.getValue() >> 8;
+            i++;
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            OpeningBook.write(out, keys, bestMoves, scores, count);
+        }
+        System.out.println("Wrote " + count + " positions to " + output.toAbsolutePath());
+    }
+}
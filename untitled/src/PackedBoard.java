@@ -0,0 +1,409 @@
+/**
+ * PACKED BOARD
+ *
+ * Représentation compacte du plateau global : pour chaque plateau local, un masque
+ * de 9 bits par joueur, plus des masques de 9 bits pour l'état global (plateaux
+ * gagnés par X, par O, et plateaux fermés).
+ *
+ * Les coups sont encodés par un entier 0 à 80 : (indice du plateau) * 9 + (indice
+ * de la case), avec indice = ligne * 3 + colonne. Le plateau se modifie sur place
+ * avec play/undo, ce qui évite toute copie pendant la recherche.
+ */
+public final class PackedBoard {
+
+    public static final int NO_MOVE = -1;
+    public static final int FULL_MASK = 0x1FF;
+
+    // Les 8 lignes gagnantes d'une grille 3x3 (lignes, colonnes, diagonales)
+    public static final int[] LINES = {
+            0x007, 0x038, 0x1C0, // Lignes
+            0x049, 0x092, 0x124, // Colonnes
+            0x111, 0x054 // Diagonales
+    };
+
+    // WINNING[mask] est vrai si le masque contient une ligne complète
+    private static final boolean[] WINNING = new boolean[512];
+
+    // Avec -Dboard.debugEval=true, chaque évaluation incrémentale est comparée au
+    // recalcul complet
+    private static final boolean DEBUG_EVAL = Boolean.getBoolean("board.debugEval");
+
+    // Poids de GlobalBoard.BOARD_WEIGHTS, indexés par plateau (0 à 8)
+    private static final int[] WEIGHTS = new int[9];
+
+    static {
+        for (int b = 0; b < 9; b++) {
+            WEIGHTS[b] = GlobalBoard.BOARD_WEIGHTS[b / 3][b % 3];
+        }
+        for (int mask = 0; mask < 512; mask++) {
+            for (int line : LINES) {
+                if ((mask & line) == line) {
+                    WINNING[mask] = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    private final int[] xMasks = new int[9];
+    private final int[] oMasks = new int[9];
+    private final int[] indices = new int[9]; // Index base 3 de chaque plateau local (voir LocalTables)
+    private int metaX; // Plateaux gagnés par X
+    private int metaO; // Plateaux gagnés par O
+    private int metaClosed; // Plateaux fermés (gagnés ou pleins)
+    private int metaIndex; // État global encodé pour MetaTables
+    private long hash; // Clé Zobrist des pièces posées (voir Zobrist)
+
+    // Termes de l'évaluation, tenus à jour à chaque coup, du point de vue de X
+    private final int[] boardTerms = new int[9]; // Contribution pondérée de chaque plateau local ouvert
+    private int localTerm; // Somme de boardTerms
+    private int metaTerm; // Termes globaux lus dans MetaTables (plateaux gagnés, lignes à deux plateaux)
+
+    public PackedBoard() {
+    }
+
+    // Constructeur de copie
+    public PackedBoard(PackedBoard other) {
+        copyFrom(other);
+    }
+
+    // Recopie l'état d'un autre plateau sans allocation.
+    public void copyFrom(PackedBoard other) {
+        System.arraycopy(other.xMasks, 0, xMasks, 0, 9);
+        System.arraycopy(other.oMasks, 0, oMasks, 0, 9);
+        System.arraycopy(other.indices, 0, indices, 0, 9);
+        metaX = other.metaX;
+        metaO = other.metaO;
+        metaClosed = other.metaClosed;
+        metaIndex = other.metaIndex;
+        hash = other.hash;
+        System.arraycopy(other.boardTerms, 0, boardTerms, 0, 9);
+        localTerm = other.localTerm;
+        metaTerm = other.metaTerm;
+    }
+
+    /*
+     * Encodage des coups
+     */
+    public static int toCell(int gRow, int gCol, int lRow, int lCol) {
+        return (gRow * 3 + gCol) * 9 + lRow * 3 + lCol;
+    }
+
+    public static int boardOf(int cell) {
+        return cell / 9;
+    }
+
+    public static int localOf(int cell) {
+        return cell % 9;
+    }
+
+    public static boolean isWinningMask(int mask) {
+        return WINNING[mask];
+    }
+
+    /*
+     * Modification du plateau
+     */
+
+    // Joue un coup sur place. Le coup doit être légal (plateau ouvert, case vide).
+    public void play(int cell, int mark) {
+        int b = cell / 9;
+        int local = cell % 9;
+        int index;
+        if (mark == LocalBoard.X) {
+            xMasks[b] |= 1 << local;
+            index = indices[b] + LocalTables.POW3[local];
+        } else {
+            oMasks[b] |= 1 << local;
+            index = indices[b] + 2 * LocalTables.POW3[local];
+        }
+        indices[b] = index;
+        hash ^= Zobrist.pieceKey(cell, mark);
+
+        int winner = LocalTables.winner(index);
+        if (winner == LocalBoard.X) {
+            metaX |= 1 << b;
+            metaClosed |= 1 << b;
+        } else if (winner == LocalBoard.O) {
+            metaO |= 1 << b;
+            metaClosed |= 1 << b;
+        } else if (LocalTables.isFull(index)) {
+            metaClosed |= 1 << b;
+        }
+
+        refreshBoardTerm(b);
+        if ((metaClosed & (1 << b)) != 0)
+            refreshMetaTerm();
+    }
+
+    // Annule un coup joué avec play. Le plateau local était forcément ouvert avant
+    // le coup, donc il suffit d'effacer ses bits globaux.
+    public void undo(int cell) {
+        int b = cell / 9;
+        int local = cell % 9;
+        int bit = 1 << local;
+        if ((xMasks[b] & bit) != 0) {
+            xMasks[b] &= ~bit;
+            indices[b] -= LocalTables.POW3[local];
+            hash ^= Zobrist.pieceKey(cell, LocalBoard.X);
+        } else {
+            oMasks[b] &= ~bit;
+            indices[b] -= 2 * LocalTables.POW3[local];
+            hash ^= Zobrist.pieceKey(cell, LocalBoard.O);
+        }
+        boolean wasClosed = (metaClosed & (1 << b)) != 0;
+        int boardClear = ~(1 << b);
+        metaX &= boardClear;
+        metaO &= boardClear;
+        metaClosed &= boardClear;
+
+        refreshBoardTerm(b);
+        if (wasClosed)
+            refreshMetaTerm();
+    }
+
+    // Place directement une pièce (ou vide la case) puis recalcule l'état du plateau
+    // local. Utilisé pour charger l'état envoyé par le serveur.
+    public void setPiece(int cell, int piece) {
+        int b = cell / 9;
+        int bit = 1 << (cell % 9);
+        int previous = getPiece(cell);
+        if (previous != LocalBoard.EMPTY)
+            hash ^= Zobrist.pieceKey(cell, previous);
+        xMasks[b] &= ~bit;
+        oMasks[b] &= ~bit;
+        if (piece == LocalBoard.X) {
+            xMasks[b] |= bit;
+            hash ^= Zobrist.pieceKey(cell, piece);
+        } else if (piece == LocalBoard.O) {
+            oMasks[b] |= bit;
+            hash ^= Zobrist.pieceKey(cell, piece);
+        }
+        updateMeta(b);
+    }
+
+    // Recalcule le gagnant et la fermeture du plateau local b.
+    private void updateMeta(int b) {
+        int bit = 1 << b;
+        int index = LocalTables.index(xMasks[b], oMasks[b]);
+        indices[b] = index;
+        metaX &= ~bit;
+        metaO &= ~bit;
+        metaClosed &= ~bit;
+        int winner = LocalTables.winner(index);
+        if (winner == LocalBoard.X) {
+            metaX |= bit;
+        } else if (winner == LocalBoard.O) {
+            metaO |= bit;
+        }
+        if (winner != LocalBoard.EMPTY || LocalTables.isFull(index)) {
+            metaClosed |= bit;
+        }
+        refreshBoardTerm(b);
+        refreshMetaTerm();
+    }
+
+    // Recalcule la contribution du plateau local b (gagné, nul ou en cours).
+    private void refreshBoardTerm(int b) {
+        int term;
+        if ((metaClosed & (1 << b)) != 0)
+            term = 0; // Les plateaux gagnés sont comptés dans metaTerm
+        else
+            term = LocalTables.scoreX(indices[b]) * WEIGHTS[b];
+        localTerm += term - boardTerms[b];
+        boardTerms[b] = term;
+    }
+
+    // Recalcule les lignes globales; seulement quand un plateau s'ouvre ou se ferme.
+    private void refreshMetaTerm() {
+        metaIndex = MetaTables.index(metaX, metaO, metaClosed);
+        metaTerm = MetaTables.scoreX(metaIndex);
+    }
+
+    /*
+     * Lecture de l'état
+     */
+    public int getPiece(int cell) {
+        int b = cell / 9;
+        int bit = 1 << (cell % 9);
+        if ((xMasks[b] & bit) != 0)
+            return LocalBoard.X;
+        if ((oMasks[b] & bit) != 0)
+            return LocalBoard.O;
+        return LocalBoard.EMPTY;
+    }
+
+    public int getXMask(int b) {
+        return xMasks[b];
+    }
+
+    public int getOMask(int b) {
+        return oMasks[b];
+    }
+
+    // Index base 3 du plateau local b dans LocalTables.
+    public int getLocalIndex(int b) {
+        return indices[b];
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public int getMetaX() {
+        return metaX;
+    }
+
+    public int getMetaO() {
+        return metaO;
+    }
+
+    public int getMetaClosed() {
+        return metaClosed;
+    }
+
+    // Cases vides du plateau local b (0 si le plateau est fermé).
+    public int emptyMask(int b) {
+        if ((metaClosed & (1 << b)) != 0)
+            return 0;
+        return FULL_MASK & ~(xMasks[b] | oMasks[b]);
+    }
+
+    // Nombre de cases vides dans les plateaux encore ouverts (coups restants au plus).
+    public int openEmptyCount() {
+        int count = 0;
+        for (int b = 0; b < 9; b++) {
+            count += Integer.bitCount(emptyMask(b));
+        }
+        return count;
+    }
+
+    public boolean isClosed(int b) {
+        return (metaClosed & (1 << b)) != 0;
+    }
+
+    // Renvoie le gagnant du plateau local b (X, O, ou EMPTY).
+    public int getWinner(int b) {
+        int bit = 1 << b;
+        if ((metaX & bit) != 0)
+            return LocalBoard.X;
+        if ((metaO & bit) != 0)
+            return LocalBoard.O;
+        return LocalBoard.EMPTY;
+    }
+
+    public int checkGlobalWinner() {
+        return MetaTables.winner(metaIndex);
+    }
+
+    // Vrai si aucun joueur ne peut plus aligner trois plateaux : la partie est
+    // nulle, quel que soit le reste du jeu.
+    public boolean isDeadDraw() {
+        return MetaTables.isDeadDraw(metaIndex);
+    }
+
+    public int getMetaIndex() {
+        return metaIndex;
+    }
+
+    // Tous les plateaux locaux sont fermés.
+    public boolean isFull() {
+        return metaClosed == FULL_MASK;
+    }
+
+    // Plateau imposé par le dernier coup, ou -1 si le joueur peut jouer partout.
+    public int forcedBoard(int lastMove) {
+        if (lastMove == NO_MOVE)
+            return -1;
+        int forced = lastMove % 9;
+        return isClosed(forced) ? -1 : forced;
+    }
+
+    // Écrit les coups légaux (cases 0 à 80) dans `out` et renvoie leur nombre. Les
+    // cases vides sont lues directement dans les masques, sans allocation.
+    public int generateMoves(int lastMove, int[] out) {
+        int count = 0;
+        int forced = forcedBoard(lastMove);
+        int from = (forced < 0) ? 0 : forced;
+        int to = (forced < 0) ? 8 : forced;
+        for (int b = from; b <= to; b++) {
+            int empty = emptyMask(b);
+            int base = b * 9;
+            while (empty != 0) {
+                out[count++] = base + Integer.numberOfTrailingZeros(empty);
+                empty &= empty - 1;
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Heuristique (mêmes règles que GlobalBoard.evaluateGlobal). Les termes sont
+     * maintenus par play/undo : l'évaluation d'une feuille se réduit à une addition.
+     */
+    public int evaluate(int mark) {
+        int winner = MetaTables.winner(metaIndex);
+        if (winner != LocalBoard.EMPTY)
+            return (winner == mark) ? GlobalBoard.GLOBAL_WIN_SCORE : -GlobalBoard.GLOBAL_WIN_SCORE;
+
+        // Partie nulle : tous les plateaux fermés sans gagnant global, ou plus aucune
+        // ligne globale possible pour l'un ou l'autre
+        if (MetaTables.isDeadDraw(metaIndex))
+            return 0;
+
+        int score = (mark == LocalBoard.X) ? localTerm + metaTerm : -(localTerm + metaTerm);
+        if (DEBUG_EVAL && score != evaluateFull(mark)) {
+            throw new IllegalStateException(
+                    "Incremental evaluation " + score + " differs from full evaluation " + evaluateFull(mark));
+        }
+        return score;
+    }
+
+    // Recalcul complet de l'évaluation, sans les termes incrémentaux (vérification).
+    int evaluateFull(int mark) {
+        int mine = (mark == LocalBoard.X) ? metaX : metaO;
+        int theirs = (mark == LocalBoard.X) ? metaO : metaX;
+
+        if (WINNING[mine])
+            return GlobalBoard.GLOBAL_WIN_SCORE;
+        if (WINNING[theirs])
+            return -GlobalBoard.GLOBAL_WIN_SCORE;
+
+        // Partie nulle : aucune ligne sans plateau adverse ou nul, pour les deux joueurs
+        int drawn = metaClosed & ~(mine | theirs);
+        boolean winnable = false;
+        for (int line : LINES) {
+            if ((line & (theirs | drawn)) == 0 || (line & (mine | drawn)) == 0)
+                winnable = true;
+        }
+        if (!winnable)
+            return 0;
+
+        int score = 0;
+        for (int b = 0; b < 9; b++) {
+            int bit = 1 << b;
+            int weight = WEIGHTS[b];
+            if ((mine & bit) != 0) {
+                score += GlobalBoard.LOCAL_WIN_SCORE * weight;
+            } else if ((theirs & bit) != 0) {
+                score -= GlobalBoard.LOCAL_WIN_SCORE * weight;
+            } else if ((metaClosed & bit) == 0) {
+                score += LocalTables.score(indices[b], mark) * weight;
+            }
+        }
+
+        score += countTwoInRow(mine) * GlobalBoard.GLOBAL_TWO_IN_ROW_SCORE;
+        score -= countTwoInRow(theirs) * GlobalBoard.GLOBAL_TWO_IN_ROW_SCORE;
+        return score;
+    }
+
+    // Compte les lignes globales avec 2 plateaux gagnés et le 3ème encore ouvert.
+    private int countTwoInRow(int won) {
+        int count = 0;
+        for (int line : LINES) {
+            if (Integer.bitCount(won & line) == 2 && (line & ~won & ~metaClosed) != 0)
+                count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,248 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * PERFT
+ *
+ * Compte les feuilles de l'arbre de jeu à la profondeur N depuis une position.
+ * Sert à vérifier le générateur de coups (plateau imposé, plateaux fermés) et à
+ * le chronométrer. Une partie gagnée est une feuille : aucun coup n'est généré
+ * après une victoire globale.
+ *
+ * Deux implémentations sont comptées : PackedBoard (celle de la recherche, coups
+ * entiers et tampons par ply) et GlobalBoard (getPossibleMoves + play/undo,
+ * celle du client). Le mode parallèle répartit les coups de la racine entre les
+ * threads, chacun sur sa copie du plateau.
+ *
+ * Utilisation : java Perft [options] [profondeur] [coups...]
+ *   --divide     affiche le compte de chaque coup de la racine
+ *   --threads N  nombre de threads (défaut : nombre de coeurs)
+ *   --global     compte avec GlobalBoard au lieu de PackedBoard
+ *   --verify     vérifie les comptes connus depuis le plateau vide (défaut :
+ *                jusqu'à la profondeur 6)
+ */
+public class Perft {
+
+    // Comptes connus depuis le plateau vide, indexés par profondeur.
+    private static final long[] EMPTY_BOARD_COUNTS = { 1L, 81L, 720L, 6336L, 55080L, 473256L, 4020960L, 33782544L,
+            281067408L };
+
+    // Compte les feuilles à `depth` avec PackedBoard, `mark` devant jouer.
+    // `buffers[ply]` reçoit les coups du ply.
+    static long perft(PackedBoard board, int lastMove, int depth, int mark, int[][] buffers, int ply) {
+        if (depth == 0)
+            return 1;
+        if (board.checkGlobalWinner() != LocalBoard.EMPTY)
+            return 0;
+
+        int[] moves = buffers[ply];
+        int count = board.generateMoves(lastMove, moves);
+        if (depth == 1)
+            return count;
+
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            board.play(move, mark);
+            nodes += perft(board, move, depth - 1, other(mark), buffers, ply + 1);
+            board.undo(move);
+        }
+        return nodes;
+    }
+
+    // Même compte avec l'API de GlobalBoard utilisée par Client.
+    static long perft(GlobalBoard board, GlobalMove lastMove, int depth, int mark) {
+        if (depth == 0)
+            return 1;
+        if (board.checkGlobalWinner() != LocalBoard.EMPTY)
+            return 0;
+
+        ArrayList<GlobalMove> moves = board.getPossibleMoves(lastMove);
+        if (depth == 1)
+            return moves.size();
+
+        long nodes = 0;
+        for (GlobalMove move : moves) {
+            if (!board.play(move, mark))
+                throw new IllegalStateException("Generated move rejected by play: " + CPUPlayer.moveToString(move));
+            nodes += perft(board, move, depth - 1, other(mark));
+            board.undo(move);
+        }
+        return nodes;
+    }
+
+    /**
+     * Compte par coup de la racine, les coups étant répartis entre `threads`
+     * threads. Renvoie les comptes dans l'ordre de `rootMoves`.
+     */
+    static long[] divide(PackedBoard board, int[] rootMoves, int rootCount, int depth, int threads, boolean global)
+            throws InterruptedException, ExecutionException {
+        int mark = sideToMove(board);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Long>> tasks = new ArrayList<>();
+            for (int i = 0; i < rootCount; i++) {
+                int move = rootMoves[i];
+                tasks.add(pool.submit(() -> {
+                    if (global) {
+                        GlobalBoard copy = toGlobalBoard(board);
+                        GlobalMove globalMove = GlobalMove.fromCell(move);
+                        copy.play(globalMove, mark);
+                        return perft(copy, globalMove, depth - 1, other(mark));
+                    }
+                    PackedBoard copy = new PackedBoard(board);
+                    copy.play(move, mark);
+                    return perft(copy, move, depth - 1, other(mark), new int[depth][81], 0);
+                }));
+            }
+            long[] counts = new long[rootCount];
+            for (int i = 0; i < rootCount; i++) {
+                counts[i] = tasks.get(i).get();
+            }
+            return counts;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Joueur qui doit jouer : X commence, donc c'est à O quand X a plus de pièces.
+    private static int sideToMove(PackedBoard board) {
+        int xCount = 0;
+        int oCount = 0;
+        for (int b = 0; b < 9; b++) {
+            xCount += Integer.bitCount(board.getXMask(b));
+            oCount += Integer.bitCount(board.getOMask(b));
+        }
+        return (xCount > oCount) ? LocalBoard.O : LocalBoard.X;
+    }
+
+    private static int other(int mark) {
+        return (mark == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+    }
+
+    private static GlobalBoard toGlobalBoard(PackedBoard board) {
+        GlobalBoard global = new GlobalBoard();
+        for (int cell = 0; cell < 81; cell++) {
+            int piece = board.getPiece(cell);
+            if (piece != LocalBoard.EMPTY) {
+                GlobalMove move = GlobalMove.fromCell(cell);
+                global.setLocalBoardPiece(move.getGlobalRow(), move.getGlobalCol(), move.getLocalRow(),
+                        move.getLocalCol(), piece);
+            }
+        }
+        return global;
+    }
+
+    // Compte les deux implémentations depuis le plateau vide et les compare aux
+    // comptes connus. Renvoie le nombre d'erreurs.
+    private static int verify(int maxDepth, int threads) throws InterruptedException, ExecutionException {
+        int errors = 0;
+        PackedBoard empty = new PackedBoard();
+        int[] rootMoves = new int[81];
+        int rootCount = empty.generateMoves(PackedBoard.NO_MOVE, rootMoves);
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            for (boolean global : new boolean[] { false, true }) {
+                long nodes = 0;
+                for (long count : divide(empty, rootMoves, rootCount, depth, threads, global))
+                    nodes += count;
+                boolean ok = nodes == EMPTY_BOARD_COUNTS[depth];
+                System.out.println("perft(" + depth + ") " + (global ? "GlobalBoard" : "PackedBoard") + " = "
+                        + nodes + (ok ? "" : "   MISMATCH, expected " + EMPTY_BOARD_COUNTS[depth]));
+                if (!ok)
+                    errors++;
+            }
+        }
+        return errors;
+    }
+
+    private static boolean contains(int[] moves, int count, int cell) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == cell)
+                return true;
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+        int depth = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean divide = false;
+        boolean global = false;
+        boolean verify = false;
+        List<String> moves = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--divide" -> divide = true;
+                case "--global" -> global = true;
+                case "--verify" -> verify = true;
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                default -> {
+                    if (Character.isDigit(args[i].charAt(0)))
+                        depth = Integer.parseInt(args[i]);
+                    else
+                        moves.add(args[i]);
+                }
+            }
+        }
+
+        if (verify) {
+            int maxDepth = Math.min(depth < 0 ? 6 : depth, EMPTY_BOARD_COUNTS.length - 1);
+            int errors = verify(maxDepth, threads);
+            System.out.println("Checked perft 1 to " + maxDepth + ", " + errors + " mismatches.");
+            if (errors > 0)
+                System.exit(1);
+            return;
+        }
+
+        if (depth < 0)
+            depth = 4;
+
+        // Position de départ : suite de coups au format du serveur, chacun légal
+        PackedBoard board = new PackedBoard();
+        int lastMove = PackedBoard.NO_MOVE;
+        int mark = LocalBoard.X;
+        int[] legalMoves = new int[81];
+        for (int i = 0; i < moves.size(); i++) {
+            String moveStr = moves.get(i);
+            GlobalMove move = Client.parseMoveString(moveStr);
+            if (move == null) {
+                System.err.println("Invalid start move '" + moveStr + "' (expected A1 to I9)");
+                System.exit(1);
+            }
+            int cell = move.toCell();
+            if (board.checkGlobalWinner() != LocalBoard.EMPTY || !contains(legalMoves,
+                    board.generateMoves(lastMove, legalMoves), cell)) {
+                System.err.println("Illegal start move " + moveStr + " after " + moves.subList(0, i));
+                System.exit(1);
+            }
+            lastMove = cell;
+            board.play(lastMove, mark);
+            mark = other(mark);
+        }
+
+        if (depth == 0 || board.checkGlobalWinner() != LocalBoard.EMPTY) {
+            System.out.println("Nodes: " + (depth == 0 ? 1 : 0));
+            return;
+        }
+
+        long start = System.nanoTime();
+        int[] rootMoves = new int[81];
+        int rootCount = board.generateMoves(lastMove, rootMoves);
+        long[] counts = divide(board, rootMoves, rootCount, depth, threads, global);
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+
+        long nodes = 0;
+        for (int i = 0; i < rootCount; i++) {
+            if (divide)
+                System.out.println(CPUPlayer.moveToString(GlobalMove.fromCell(rootMoves[i])) + ": " + counts[i]);
+            nodes += counts[i];
+        }
+        System.out.println("perft(" + depth + ") = " + nodes + " in " + millis + " ms (" + (nodes * 1000 / millis)
+                + " nodes/s, " + threads + " thread(s), " + (global ? "GlobalBoard" : "PackedBoard") + ")");
+    }
+}
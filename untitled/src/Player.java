@@ -0,0 +1,39 @@
+/**
+ * PLAYER
+ *
+ * Contrat commun des moteurs de jeu utilisés par Client.
+ */
+public interface Player {
+
+    // Trouver le meilleur coup à jouer, sans modifier le plateau reçu. Le budget de
+    // temps commence à l'appel.
+    default GlobalMove findBestMove(GlobalBoard board, GlobalMove lastOpponentMove) {
+        return findBestMove(board, lastOpponentMove, System.nanoTime());
+    }
+
+    // Même chose, avec le budget de temps compté depuis `startNanos` (System.nanoTime()
+    // à la réception de la commande, attente dans la file de recherche comprise).
+    GlobalMove findBestMove(GlobalBoard board, GlobalMove lastOpponentMove, long startNanos);
+
+    // Réfléchit pendant le temps de l'adversaire. `board` contient déjà notre coup
+    // `ourMove`. Par défaut, le moteur ne fait rien.
+    default void startPondering(GlobalBoard board, GlobalMove ourMove) {
+    }
+
+    // Arrête la réflexion en cours (à appeler avant de modifier le plateau).
+    default void stopPondering() {
+    }
+
+    // Libère les threads du moteur quand il ne sert plus (fin de partie ou de
+    // session). Par défaut, le moteur n'en a pas.
+    default void close() {
+    }
+
+    // Crée le moteur choisi dans la configuration.
+    static Player create(int mark, SearchConfig config) {
+        if (config.engine == SearchConfig.Engine.MCTS) {
+            return new MctsPlayer(mark, config);
+        }
+        return new CPUPlayer(mark, config);
+    }
+}
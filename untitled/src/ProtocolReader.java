@@ -0,0 +1,140 @@
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * PROTOCOL READER
+ *
+ * Lecture des messages du serveur : un octet de commande ('1' à '5') suivi de
+ * son contenu. '1' et '2' envoient les 81 valeurs du plateau séparées par des
+ * espaces, '3' et '5' un coup de deux caractères (" D6", " A0" au premier tour),
+ * '4' rien.
+ *
+ * Les lectures sont bloquantes et se font dans un seul tampon réutilisé : un
+ * message coupé en plusieurs paquets TCP est lu jusqu'au bout, sans attente
+ * arbitraire ni allocation. Les espaces, retours à la ligne et octets nuls entre
+ * les éléments sont ignorés.
+ */
+public class ProtocolReader {
+
+    public static final int EOF = -1;
+    public static final int FIRST_MOVE = -2; // " A0" : l'adversaire n'a pas encore joué
+    public static final int INVALID_MOVE = -3;
+
+    private final InputStream input;
+    private final byte[] buffer = new byte[4096];
+    private int position;
+    private int limit;
+    private long lastParseNanos;
+    private int lastMoveColumn; // Caractères bruts du dernier coup lu (pour les messages d'erreur)
+    private int lastMoveRow;
+
+    public ProtocolReader(InputStream input) {
+        this.input = input;
+    }
+
+    // Attend la prochaine commande. Renvoie son caractère, ou EOF.
+    public int readCommand() throws IOException {
+        return skipSeparators() ? buffer[position++] & 0xFF : EOF;
+    }
+
+    /**
+     * Lit les 81 valeurs du plateau dans `values`, ligne par ligne de la grille
+     * 9x9 (de haut en bas, de gauche à droite). Renvoie false si la connexion se
+     * ferme ou si une valeur n'est pas un nombre.
+     */
+    public boolean readBoard(int[] values) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < 81; i++) {
+            if (!skipSeparators())
+                return false;
+            int value = 0;
+            int digits = 0;
+            // Ne jamais bloquer après un chiffre : la dernière valeur peut finir le
+            // message, et le serveur attend alors notre coup.
+            while (position < limit || (input.available() > 0 && fill())) {
+                int ch = buffer[position];
+                if (ch < '0' || ch > '9')
+                    break;
+                value = value * 10 + (ch - '0');
+                digits++;
+                position++;
+            }
+            if (digits == 0)
+                return false;
+            values[i] = value;
+        }
+        lastParseNanos = System.nanoTime() - start;
+        return true;
+    }
+
+    /**
+     * Lit un coup de deux caractères. Renvoie la case (0 à 80), FIRST_MOVE pour
+     * " A0", INVALID_MOVE si le format est inconnu, ou EOF.
+     */
+    public int readMove() throws IOException {
+        long start = System.nanoTime();
+        if (!skipSeparators())
+            return EOF;
+        lastMoveColumn = buffer[position++] & 0xFF;
+        if (position >= limit && !fill())
+            return EOF;
+        lastMoveRow = buffer[position++] & 0xFF;
+        lastParseNanos = System.nanoTime() - start;
+
+        int column = Character.toUpperCase(lastMoveColumn) - 'A';
+        int row = lastMoveRow - '1';
+        if (column == 0 && lastMoveRow == '0')
+            return FIRST_MOVE;
+        if (column < 0 || column > 8 || row < 0 || row > 8)
+            return INVALID_MOVE;
+        return PackedBoard.toCell(row / 3, column / 3, row % 3, column % 3);
+    }
+
+    // Texte brut du dernier coup lu (erreurs seulement : alloue).
+    public String lastMoveText() {
+        return "" + (char) lastMoveColumn + (char) lastMoveRow;
+    }
+
+    // Durée de la dernière lecture de plateau ou de coup, attente des paquets incluse.
+    public long getLastParseNanos() {
+        return lastParseNanos;
+    }
+
+    // Jette ce qui est déjà reçu (après une commande inconnue). Renvoie le nombre d'octets.
+    public int discardBuffered() throws IOException {
+        int skipped = limit - position;
+        position = limit;
+        int available = input.available();
+        while (available > 0) {
+            int read = input.read(buffer, 0, Math.min(available, buffer.length));
+            if (read <= 0)
+                break;
+            skipped += read;
+            available = input.available();
+        }
+        position = 0;
+        limit = 0;
+        return skipped;
+    }
+
+    // Avance jusqu'au prochain octet significatif. Renvoie false en fin de flux.
+    private boolean skipSeparators() throws IOException {
+        while (position < limit || fill()) {
+            int ch = buffer[position];
+            if (ch != ' ' && ch != '\n' && ch != '\r' && ch != '\t' && ch != 0)
+                return true;
+            position++;
+        }
+        return false;
+    }
+
+    // Lecture bloquante d'au moins un octet. Renvoie false en fin de flux.
+    private boolean fill() throws IOException {
+        int read = input.read(buffer, 0, buffer.length);
+        if (read <= 0)
+            return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
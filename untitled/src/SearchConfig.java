@@ -0,0 +1,101 @@
+/**
+ * SEARCH CONFIG
+ *
+ * Options de recherche de CPUPlayer. Les valeurs par défaut sont celles utilisées
+ * en partie; fromSystemProperties permet de les changer au lancement, par exemple :
+ *   java -Dsearch.algorithm=PVS Client localhost 8888
+ * Un autre préfixe donne une seconde configuration par-dessus la première (voir
+ * Tournament : -Dcandidate.algorithm=PVS).
+ */
+public class SearchConfig {
+
+    public enum Engine {
+        ALPHA_BETA, // CPUPlayer
+        MCTS // MctsPlayer
+    }
+
+    public enum Algorithm {
+        MINIMAX, // Minimax alpha-beta classique (max/min)
+        PVS // Negamax avec Principal Variation Search et fenêtres d'aspiration
+    }
+
+    public static final String DEFAULT_BOOK_PATH = "opening_book.bin";
+
+    public Engine engine = Engine.ALPHA_BETA;
+    public Algorithm algorithm = Algorithm.MINIMAX;
+    public long timeLimitMillis = 2900; // Limite dure par coup. Il faut se garder un peu de temps pour capter les erreurs.
+    public double softTimeRatio = 0.6; // Part de la limite visée avant ajustements (voir TimeManager)
+    public int nodesPerTimeCheck = 1024; // L'horloge n'est lue que tous les N noeuds
+    public long nodeLimit = 0; // Noeuds du thread principal par coup (0 : seulement le temps)
+    public int quiescenceDepth = 4; // Coups forcés ajoutés au bout de la profondeur (0 : pas de quiescence)
+    public boolean lateMoveReductions = true; // Coups calmes triés tard cherchés d'abord moins profondément
+    public boolean futilityPruning = true; // Coups calmes ignorés près des feuilles si l'évaluation est loin sous alpha
+    public int futilityMargin = 200; // Marge de l'élagage de futilité, par ply restant
+    public int aspirationWindow = 50; // Demi-largeur initiale de la fenêtre d'aspiration
+    public int ttSizeMb = 64; // Mémoire de la table de transposition, allouée une seule fois
+    public int threads = 1; // Threads de recherche (Lazy SMP au-delà de 1)
+    public boolean ponder = false; // Chercher pendant le temps de l'adversaire
+    public String bookPath = DEFAULT_BOOK_PATH; // Livre d'ouvertures (vide : pas de livre)
+    public int endgameEmptyCells = 24; // Résolution exacte sous ce nombre de cases vides ouvertes (0 : jamais)
+    public int endgameCacheMb = 16; // Table propre au solveur de fin de partie
+    public String statsFile = ""; // Une ligne JSON de SearchStats par coup (vide : pas d'export)
+    public int mctsArenaNodes = 1 << 21; // Capacité de l'arbre MCTS, allouée une seule fois
+    public double mctsExploration = 1.41; // Constante d'exploration UCT
+
+    // Lit les options passées avec -Dsearch.<option>=<valeur>.
+    public static SearchConfig fromSystemProperties() {
+        return fromSystemProperties("search.", new SearchConfig());
+    }
+
+    // Lit les options -D<prefix><option>=<valeur>; les options absentes gardent
+    // leur valeur dans `config`, qui est modifiée et renvoyée.
+    public static SearchConfig fromSystemProperties(String prefix, SearchConfig config) {
+        String engine = System.getProperty(prefix + "engine");
+        if (engine != null) {
+            config.engine = Engine.valueOf(engine.trim().toUpperCase());
+        }
+        String algorithm = System.getProperty(prefix + "algorithm");
+        if (algorithm != null) {
+            config.algorithm = Algorithm.valueOf(algorithm.trim().toUpperCase());
+        }
+        config.timeLimitMillis = Long.getLong(prefix + "timeLimitMillis", config.timeLimitMillis);
+        String softRatio = System.getProperty(prefix + "softTimeRatio");
+        if (softRatio != null) {
+            config.softTimeRatio = Double.parseDouble(softRatio);
+        }
+        config.nodesPerTimeCheck = Integer.getInteger(prefix + "nodesPerTimeCheck", config.nodesPerTimeCheck);
+        config.nodeLimit = Long.getLong(prefix + "nodeLimit", config.nodeLimit);
+        config.quiescenceDepth = Math.max(0, Integer.getInteger(prefix + "quiescenceDepth", config.quiescenceDepth));
+        config.lateMoveReductions = Boolean.parseBoolean(
+                System.getProperty(prefix + "lateMoveReductions", String.valueOf(config.lateMoveReductions)));
+        config.futilityPruning = Boolean.parseBoolean(
+                System.getProperty(prefix + "futilityPruning", String.valueOf(config.futilityPruning)));
+        config.futilityMargin = Integer.getInteger(prefix + "futilityMargin", config.futilityMargin);
+        config.aspirationWindow = Integer.getInteger(prefix + "aspirationWindow", config.aspirationWindow);
+        config.ttSizeMb = Integer.getInteger(prefix + "ttSizeMb", config.ttSizeMb);
+        config.threads = Math.max(1, Integer.getInteger(prefix + "threads", config.threads));
+        config.ponder = Boolean.parseBoolean(System.getProperty(prefix + "ponder", String.valueOf(config.ponder)));
+        config.bookPath = System.getProperty(prefix + "book", config.bookPath);
+        config.endgameEmptyCells = Integer.getInteger(prefix + "endgameEmptyCells", config.endgameEmptyCells);
+        config.endgameCacheMb = Integer.getInteger(prefix + "endgameCacheMb", config.endgameCacheMb);
+        config.statsFile = System.getProperty(prefix + "statsFile", config.statsFile);
+        config.mctsArenaNodes = Integer.getInteger(prefix + "mctsArenaNodes", config.mctsArenaNodes);
+        String exploration = System.getProperty(prefix + "mctsExploration");
+        if (exploration != null) {
+            config.mctsExploration = Double.parseDouble(exploration);
+        }
+        return config;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchConfig [engine=" + engine + ", algorithm=" + algorithm + ", timeLimitMillis=" + timeLimitMillis
+                + ", softTimeRatio=" + softTimeRatio + ", nodesPerTimeCheck=" + nodesPerTimeCheck + ", nodeLimit="
+                + nodeLimit + ", quiescenceDepth=" + quiescenceDepth + ", lateMoveReductions=" + lateMoveReductions
+                + ", futilityPruning=" + futilityPruning + ", futilityMargin=" + futilityMargin + ", aspirationWindow="
+                + aspirationWindow + ", ttSizeMb=" + ttSizeMb + ", threads=" + threads + ", ponder=" + ponder
+                + ", bookPath=" + bookPath + ", endgameEmptyCells=" + endgameEmptyCells + ", endgameCacheMb="
+                + endgameCacheMb + ", statsFile=" + statsFile + ", mctsArenaNodes=" + mctsArenaNodes
+                + ", mctsExploration=" + mctsExploration + "]";
+    }
+}
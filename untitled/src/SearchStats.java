@@ -0,0 +1,187 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SEARCH STATS
+ *
+ * Mesures d'un appel à CPUPlayer.findBestMove : d'où vient le coup (recherche,
+ * livre, solveur...), et pour chaque itération terminée de l'approfondissement
+ * itératif, les noeuds (dont ceux de la quiescence), les feuilles évaluées, la
+ * part des coupures causées par le premier coup, le facteur de branchement, le
+ * temps, les accès à la table de transposition et la variation principale.
+ *
+ * Les compteurs sont de simples champs de SearchWorker (un par thread), lus une
+ * fois par itération : les mesures restent actives en tournoi. Avec
+ * -Dsearch.statsFile=<fichier>, chaque coup ajoute une ligne JSON au fichier;
+ * l'écriture se fait sur un thread d'arrière-plan, pas dans le temps du coup.
+ */
+public class SearchStats {
+
+    // Origine du coup joué
+    public static final String SEARCH = "search";
+    public static final String IMMEDIATE_WIN = "immediate_win";
+    public static final String BOOK = "book";
+    public static final String SINGLE_MOVE = "single_move";
+    public static final String ENDGAME = "endgame";
+    public static final String FALLBACK = "fallback";
+
+    /**
+     * Une itération terminée par le thread principal. Les compteurs sont ceux de
+     * l'itération seule; `principalVariation` contient des cases 0 à 80.
+     */
+    public record Iteration(int depth, int score, int bestMove, long nodes, long leafEvaluations,
+            long quiescenceNodes, double firstMoveCutoffRate, double branchingFactor, double timeMillis, long ttProbes, long ttHits,
+            int[] principalVariation) {
+    }
+
+    // Écritures des fichiers de mesures, dans l'ordre, hors du thread de recherche
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stats-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(SearchStats::flushWrites, "stats-flush"));
+    }
+
+    private final List<Iteration> iterations = new ArrayList<>();
+    private int mark;
+    private int threads;
+    private long timestamp;
+    private String source = SEARCH;
+    private int move = PackedBoard.NO_MOVE;
+    private long nodes;
+    private long elapsedMillis;
+
+    // Début d'un coup.
+    public void reset(int mark, int threads) {
+        this.mark = mark;
+        this.threads = threads;
+        this.timestamp = System.currentTimeMillis();
+        iterations.clear();
+        source = SEARCH;
+        move = PackedBoard.NO_MOVE;
+        nodes = 0;
+        elapsedMillis = 0;
+    }
+
+    public void addIteration(Iteration iteration) {
+        iterations.add(iteration);
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    // Fin d'un coup : coup joué, noeuds de tous les threads et durée totale.
+    public void finish(int move, long nodes, long elapsedMillis) {
+        this.move = move;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<Iteration> getIterations() {
+        return iterations;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Dernière itération terminée, ou null.
+    public Iteration lastIteration() {
+        return iterations.isEmpty() ? null : iterations.get(iterations.size() - 1);
+    }
+
+    // Une ligne JSON, sans retour à la ligne.
+    public String toJson() {
+        StringBuilder json = new StringBuilder(256 + iterations.size() * 160);
+        Iteration last = lastIteration();
+        json.append("{\"timestamp\":").append(timestamp)
+                .append(",\"side\":\"").append(mark == LocalBoard.X ? "X" : "O")
+                .append("\",\"move\":\"").append(cellToString(move))
+                .append("\",\"source\":\"").append(source)
+                .append("\",\"depth\":").append(last == null ? 0 : last.depth())
+                .append(",\"score\":").append(last == null ? 0 : last.score())
+                .append(",\"nodes\":").append(nodes)
+                .append(",\"timeMs\":").append(elapsedMillis)
+                .append(",\"nps\":").append(nodes * 1000 / Math.max(1, elapsedMillis))
+                .append(",\"threads\":").append(threads)
+                .append(",\"iterations\":[");
+        for (int i = 0; i < iterations.size(); i++) {
+            Iteration it = iterations.get(i);
+            if (i > 0)
+                json.append(',');
+            json.append("{\"depth\":").append(it.depth())
+                    .append(",\"score\":").append(it.score())
+                    .append(",\"bestMove\":\"").append(cellToString(it.bestMove()))
+                    .append("\",\"nodes\":").append(it.nodes())
+                    .append(",\"leafEvals\":").append(it.leafEvaluations())
+                    .append(",\"qNodes\":").append(it.quiescenceNodes())
+                    .append(",\"firstMoveCutoffRate\":").append(round(it.firstMoveCutoffRate()))
+                    .append(",\"branchingFactor\":").append(round(it.branchingFactor()))
+                    .append(",\"timeMs\":").append(round(it.timeMillis()))
+                    .append(",\"ttProbes\":").append(it.ttProbes())
+                    .append(",\"ttHits\":").append(it.ttHits())
+                    .append(",\"pv\":[");
+            int[] pv = it.principalVariation();
+            for (int j = 0; j < pv.length; j++) {
+                if (j > 0)
+                    json.append(',');
+                json.append('"').append(cellToString(pv[j])).append('"');
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Ajoute la ligne JSON au fichier (créé au besoin). La ligne est construite
+     * tout de suite; l'ouverture et l'écriture du fichier se font plus tard, sur
+     * le thread d'écriture.
+     */
+    public void appendTo(String path) {
+        String line = toJson() + System.lineSeparator();
+        WRITER.execute(() -> {
+            try {
+                Files.writeString(Path.of(path), line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                Log.warn("WARNING: could not write search stats to " + path + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // À la sortie : attend (au plus une seconde) les lignes pas encore écrites.
+    private static void flushWrites() {
+        WRITER.shutdown();
+        try {
+            WRITER.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String cellToString(int cell) {
+        return cell == PackedBoard.NO_MOVE ? "" : CPUPlayer.moveToString(GlobalMove.fromCell(cell));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,594 @@
+import java.util.Arrays;
+
+/**
+ * SEARCH WORKER
+ *
+ * Une recherche alpha-beta sur sa propre copie du plateau, avec son propre tri des
+ * coups et ses compteurs. CPUPlayer en crée un pour le thread principal et un par
+ * thread auxiliaire (Lazy SMP); tous partagent la même table de transposition.
+ *
+ * Seul le thread principal lit l'horloge (via le TimeManager, tous les N noeuds).
+ * Les threads auxiliaires s'arrêtent quand le drapeau d'arrêt du TimeManager est
+ * levé. Une recherche interrompue remonte sans exception : chaque noeud renvoie
+ * tout de suite après avoir annulé son coup, sans écrire dans la table.
+ *
+ * La recherche travaille sur un PackedBoard avec des coups encodés en entiers
+ * (0 à 80), écrits dans des tampons préalloués par ply : aucun objet n'est alloué
+ * pendant la recherche.
+ */
+class SearchWorker {
+
+    private static final int INFINITY = 10_000_000; // Borne des fenêtres negamax (évite de négativer MIN_VALUE)
+    private static final int WIN_BOUND = GlobalBoard.GLOBAL_WIN_SCORE / 2; // Au-delà : score de partie gagnée
+
+    // Réductions des coups tardifs (LMR) : seulement à partir de cette profondeur et
+    // après les premiers coups du tri (coup de la table, gains et blocages, killers)
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVES = 3;
+    private static final int LMR_DEEP_MOVES = 12; // Réduction de 2 plies au-delà, si la profondeur le permet
+    private static final int FUTILITY_MAX_DEPTH = 2;
+
+    private final TimeManager timeManager;
+    private final boolean isMainThread;
+    private final int aiMark;
+    private final int opponentMark;
+    private final SearchConfig config;
+    private final TranspositionTable transpositionTable;
+    private final MoveOrdering moveOrdering = new MoveOrdering();
+    private final int[][] moveBuffers = new int[MoveOrdering.MAX_PLY][81]; // Coups de chaque ply
+
+    private final int checkMask; // Les threads auxiliaires lisent le drapeau tous les N noeuds
+    private boolean stopped; // Copie locale du drapeau d'arrêt
+    long nodes; // Noeuds visités pendant la recherche en cours
+    long leafEvaluations; // Appels à evaluate (voir SearchStats)
+    long quiescenceNodes; // Noeuds de quiescence (aussi comptés dans nodes)
+    long ttProbes;
+    long ttHits;
+    int completedDepth; // Dernière profondeur terminée
+    int rootBestMove = PackedBoard.NO_MOVE; // Meilleur coup de la racine pour l'itération en cours
+
+    SearchWorker(TimeManager timeManager, boolean isMainThread, int aiMark, SearchConfig config,
+            TranspositionTable transpositionTable) {
+        this.timeManager = timeManager;
+        this.isMainThread = isMainThread;
+        this.aiMark = aiMark;
+        this.opponentMark = (aiMark == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+        this.config = config;
+        this.transpositionTable = transpositionTable;
+        this.checkMask = Integer.highestOneBit(Math.max(1, config.nodesPerTimeCheck)) - 1;
+    }
+
+    // Prépare une nouvelle recherche.
+    void newSearch() {
+        stopped = false;
+        moveOrdering.newSearch();
+        nodes = 0;
+        leafEvaluations = 0;
+        quiescenceNodes = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        completedDepth = 0;
+        rootBestMove = PackedBoard.NO_MOVE;
+    }
+
+    MoveOrdering getMoveOrdering() {
+        return moveOrdering;
+    }
+
+    // Vrai si la dernière itération a été interrompue (son résultat est à ignorer).
+    boolean isStopped() {
+        return stopped;
+    }
+
+    // Le thread principal lève le drapeau à la fin du temps; les autres threads le
+    // suivent. Appelé une fois par noeud, après nodes++.
+    private boolean pollStop() {
+        if (isMainThread) {
+            stopped = timeManager.checkTime(nodes);
+        } else if ((nodes & checkMask) == 0) {
+            stopped = timeManager.isStopRequested();
+        }
+        return stopped;
+    }
+
+    // Une itération de l'approfondissement itératif à la profondeur donnée.
+    int searchDepth(PackedBoard board, int lastOpponentMove, int depth, int previousScore) {
+        rootBestMove = PackedBoard.NO_MOVE;
+        if (config.algorithm == SearchConfig.Algorithm.PVS) {
+            return aspirationSearch(board, lastOpponentMove, depth, previousScore);
+        }
+        return minimaxAlphaBeta(board, lastOpponentMove, depth, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Boucle de réflexion pendant le temps de l'adversaire : approfondissement
+     * itératif sur la position où l'adversaire doit jouer, jusqu'au drapeau d'arrêt.
+     * Les positions atteintes après chaque réponse adverse restent dans la table de
+     * transposition pour la recherche suivante.
+     */
+    void runPonder(PackedBoard board, int ourMove) {
+        for (int depth = 1; depth < MoveOrdering.MAX_PLY; depth++) {
+            if (config.algorithm == SearchConfig.Algorithm.PVS) {
+                principalVariationSearch(board, ourMove, depth, 0, -INFINITY, INFINITY, this.opponentMark);
+            } else {
+                minimaxAlphaBeta(board, ourMove, depth, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, false);
+            }
+            if (stopped)
+                break; // Le coup de l'adversaire est arrivé
+            completedDepth = depth;
+        }
+    }
+
+    /**
+     * Boucle d'un thread auxiliaire : approfondissement itératif décalé de
+     * `depthOffset`, jusqu'au drapeau d'arrêt. Les résultats ne servent qu'à remplir
+     * la table de transposition partagée.
+     */
+    void runHelper(PackedBoard board, int lastOpponentMove, int depthOffset) {
+        int previousScore = 0;
+        for (int depth = 1 + depthOffset; depth < MoveOrdering.MAX_PLY; depth++) {
+            int score = searchDepth(board, lastOpponentMove, depth, previousScore);
+            if (stopped)
+                break; // Arrêt demandé par le thread principal
+            if (rootBestMove != PackedBoard.NO_MOVE) {
+                previousScore = score;
+                completedDepth = depth;
+            }
+        }
+    }
+
+    /**
+     * Variation principale : suit les meilleurs coups enregistrés dans la table de
+     * transposition depuis la position, en s'arrêtant au premier coup absent ou
+     * illégal. Le plateau est remis dans son état initial.
+     */
+    int[] principalVariation(PackedBoard board, int lastMove, int side, int maxLength) {
+        int[] line = new int[maxLength];
+        int length = 0;
+        while (length < maxLength && board.checkGlobalWinner() == LocalBoard.EMPTY) {
+            long entry = transpositionTable.probe(Zobrist.positionKey(board, side, lastMove));
+            int move = (entry == TranspositionTable.MISS) ? PackedBoard.NO_MOVE : TranspositionTable.move(entry);
+            int forced = board.forcedBoard(lastMove);
+            if (move == PackedBoard.NO_MOVE || board.getPiece(move) != LocalBoard.EMPTY
+                    || board.isClosed(PackedBoard.boardOf(move))
+                    || (forced >= 0 && PackedBoard.boardOf(move) != forced))
+                break;
+            board.play(move, side);
+            line[length++] = move;
+            lastMove = move;
+            side = (side == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+        }
+        for (int i = length - 1; i >= 0; i--) {
+            board.undo(line[i]);
+        }
+        return Arrays.copyOf(line, length);
+    }
+
+    /**
+     * ALGORITHME ALPHA BETA
+     * Prend l'heuristic du globalBoard et calcul le score du coup
+     *
+     * Cette méthode est basé sur le laboratoire 1 de Ahmed Sherif
+     *
+     * Les coups sont joués puis annulés sur le même plateau (aucune copie par noeud).
+     * Le meilleur coup de la racine (ply 0) est conservé dans rootBestMove.
+     */
+    int minimaxAlphaBeta(PackedBoard currentBoard, int lastMoveMade, int depth, int ply, int alpha,
+            int beta, boolean isMaximizingPlayer) {
+
+        // Au bout de la profondeur, la quiescence ne prolonge que les coups forcés
+        if (depth == 0 && config.quiescenceDepth > 0) {
+            int low = Math.max(-INFINITY, alpha);
+            int high = Math.min(INFINITY, beta);
+            if (isMaximizingPlayer)
+                return quiescence(currentBoard, lastMoveMade, ply, config.quiescenceDepth, low, high, this.aiMark);
+            return -quiescence(currentBoard, lastMoveMade, ply, config.quiescenceDepth, -high, -low,
+                    this.opponentMark);
+        }
+
+        // Verifie s'il reste du temps
+        nodes++;
+        if (pollStop())
+            return 0;
+
+        // Vérifie s'il n'y a toujours pas de gagnan. Une nulle d'avance (plus aucune
+        // ligne globale possible) est aussi une fin de partie, sauf à la racine qui
+        // doit quand même choisir un coup.
+        int globalWinner = currentBoard.checkGlobalWinner();
+        if (globalWinner != LocalBoard.EMPTY || depth == 0 || (ply > 0 && currentBoard.isDeadDraw())) {
+            leafEvaluations++;
+            return currentBoard.evaluate(this.aiMark);
+        }
+
+        // Consulte la table de transposition (sauf à la racine, qui doit choisir un coup)
+        int sideToMove = isMaximizingPlayer ? this.aiMark : this.opponentMark;
+        long key = Zobrist.positionKey(currentBoard, sideToMove, lastMoveMade);
+        long entry = transpositionTable.probe(key);
+        ttProbes++;
+        if (entry != TranspositionTable.MISS)
+            ttHits++;
+        if (entry != TranspositionTable.MISS && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+            int ttScore = TranspositionTable.score(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT)
+                return ttScore;
+            if (bound == TranspositionTable.LOWER)
+                alpha = Math.max(alpha, ttScore);
+            else
+                beta = Math.min(beta, ttScore);
+            if (beta <= alpha)
+                return ttScore;
+        }
+        int alphaOrig = alpha;
+        int betaOrig = beta;
+
+        int[] possibleNextMoves = moveBuffers[ply];
+        int moveCount = currentBoard.generateMoves(lastMoveMade, possibleNextMoves);
+
+        //Retourne qqch si rien ne peut être joué
+        if (moveCount == 0) {
+            leafEvaluations++;
+            return currentBoard.evaluate(this.aiMark);
+        }
+
+        // Trie les coups : coup de la table, gains et blocages locaux, killers, historique.
+        int ttMove = (entry != TranspositionTable.MISS) ? TranspositionTable.move(entry) : PackedBoard.NO_MOVE;
+        moveOrdering.order(currentBoard, possibleNextMoves, moveCount, ttMove, ply, sideToMove);
+
+        int bestMoveForThisNode = PackedBoard.NO_MOVE;
+        int bestEval;
+
+        // Élagage de futilité : près des feuilles, un coup calme ne fait pas gagner
+        // plus que la marge à l'évaluation statique
+        boolean futility = config.futilityPruning && ply > 0 && depth <= FUTILITY_MAX_DEPTH;
+        int staticEval = futility ? currentBoard.evaluate(this.aiMark) : 0;
+        int margin = config.futilityMargin * depth;
+        boolean selective = futility || config.lateMoveReductions;
+        boolean pruned = false; // Un coup ignoré vaut au plus staticEval + margin (au moins - margin pour le min)
+
+        //Regarder si AlphaBeta calcul le max ou le mi
+        if (isMaximizingPlayer) {
+            bestEval = Integer.MIN_VALUE;
+            for (int i = 0; i < moveCount; i++) {
+                int move = possibleNextMoves[i];
+                boolean quiet = selective && isQuiet(currentBoard, move);
+                if (futility && quiet && i > 0 && alpha < WIN_BOUND && staticEval + margin <= alpha) {
+                    pruned = true;
+                    continue;
+                }
+                currentBoard.play(move, this.aiMark);
+
+                //Récurrence (coup tardif : d'abord réduit, avec une fenêtre nulle)
+                int eval;
+                int reduction = reduction(depth, ply, i, quiet);
+                if (reduction > 0) {
+                    eval = minimaxAlphaBeta(currentBoard, move, depth - 1 - reduction, ply + 1, alpha, alpha + 1,
+                            false);
+                    if (eval > alpha)
+                        eval = minimaxAlphaBeta(currentBoard, move, depth - 1, ply + 1, alpha, beta, false);
+                } else {
+                    eval = minimaxAlphaBeta(currentBoard, move, depth - 1, ply + 1, alpha, beta, false);
+                }
+                currentBoard.undo(move);
+                if (stopped)
+                    return 0;
+
+                if (eval > bestEval) {
+                    bestEval = eval;
+                    bestMoveForThisNode = move;
+                }
+
+                //Pruning
+                alpha = Math.max(alpha, eval);
+                if (beta <= alpha) {
+                    moveOrdering.recordCutoff(move, ply, depth, this.aiMark, i);
+                    break;
+                }
+            }
+
+        } else {
+            bestEval = Integer.MAX_VALUE;
+
+            // Regarer pour l'ensemble des coups possible pour le min.
+            for (int i = 0; i < moveCount; i++) {
+                int move = possibleNextMoves[i];
+                boolean quiet = selective && isQuiet(currentBoard, move);
+                if (futility && quiet && i > 0 && beta > -WIN_BOUND && staticEval - margin >= beta) {
+                    pruned = true;
+                    continue;
+                }
+                currentBoard.play(move, this.opponentMark);
+
+                //Récurrence
+                int eval;
+                int reduction = reduction(depth, ply, i, quiet);
+                if (reduction > 0) {
+                    eval = minimaxAlphaBeta(currentBoard, move, depth - 1 - reduction, ply + 1, beta - 1, beta, true);
+                    if (eval < beta)
+                        eval = minimaxAlphaBeta(currentBoard, move, depth - 1, ply + 1, alpha, beta, true);
+                } else {
+                    eval = minimaxAlphaBeta(currentBoard, move, depth - 1, ply + 1, alpha, beta, true); // AI's turn
+                }
+                currentBoard.undo(move);
+                if (stopped)
+                    return 0;
+
+                if (eval < bestEval) {
+                    bestEval = eval;
+                    bestMoveForThisNode = move;
+                }
+
+                //Pruning
+                beta = Math.min(beta, eval);
+                if (beta <= alpha) {
+                    moveOrdering.recordCutoff(move, ply, depth, this.opponentMark, i);
+                    break;
+                }
+            }
+        }
+
+        // Les coups ignorés par futilité n'ont pas été cherchés : le score ne peut
+        // pas être une borne plus serrée que leur estimation
+        if (pruned)
+            bestEval = isMaximizingPlayer ? Math.max(bestEval, staticEval + margin)
+                    : Math.min(bestEval, staticEval - margin);
+
+        // Enregistre le résultat avec le type de borne par rapport à la fenêtre
+        int bound;
+        if (bestEval <= alphaOrig)
+            bound = TranspositionTable.UPPER;
+        else if (bestEval >= betaOrig)
+            bound = TranspositionTable.LOWER;
+        else
+            bound = TranspositionTable.EXACT;
+        transpositionTable.store(key, depth, bound, bestEval, bestMoveForThisNode);
+
+        if (ply == 0) {
+            rootBestMove = bestMoveForThisNode;
+        }
+        return bestEval;
+    }
+
+    /**
+     * FENÊTRES D'ASPIRATION
+     * Cherche d'abord dans une fenêtre étroite centrée sur le score de l'itération
+     * précédente. Si le score sort de la fenêtre, elle est élargie de ce côté et la
+     * recherche est refaite.
+     */
+    int aspirationSearch(PackedBoard board, int lastOpponentMove, int depth, int previousScore) {
+        if (depth == 1) {
+            return principalVariationSearch(board, lastOpponentMove, depth, 0, -INFINITY, INFINITY, this.aiMark);
+        }
+
+        int delta = config.aspirationWindow;
+        int alpha = Math.max(-INFINITY, previousScore - delta);
+        int beta = Math.min(INFINITY, previousScore + delta);
+        while (true) {
+            int score = principalVariationSearch(board, lastOpponentMove, depth, 0, alpha, beta, this.aiMark);
+            if (stopped) {
+                return 0;
+            } else if (score <= alpha && alpha > -INFINITY) {
+                alpha = Math.max(-INFINITY, score - delta); // Échec bas : élargir vers le bas
+            } else if (score >= beta && beta < INFINITY) {
+                beta = Math.min(INFINITY, score + delta); // Échec haut : élargir vers le haut
+            } else {
+                return score;
+            }
+            delta *= 4;
+        }
+    }
+
+    /**
+     * PRINCIPAL VARIATION SEARCH (forme negamax)
+     * Le score est toujours du point de vue du joueur `side` qui doit jouer.
+     * Le premier coup (le meilleur selon le tri) est cherché avec la fenêtre complète;
+     * les suivants avec une fenêtre nulle, et sont recherchés à nouveau seulement
+     * s'ils dépassent alpha.
+     */
+    private int principalVariationSearch(PackedBoard currentBoard, int lastMoveMade, int depth, int ply,
+            int alpha, int beta, int side) {
+
+        if (depth == 0 && config.quiescenceDepth > 0)
+            return quiescence(currentBoard, lastMoveMade, ply, config.quiescenceDepth, alpha, beta, side);
+
+        // Verifie s'il reste du temps
+        nodes++;
+        if (pollStop())
+            return 0;
+
+        if (currentBoard.checkGlobalWinner() != LocalBoard.EMPTY || depth == 0
+                || (ply > 0 && currentBoard.isDeadDraw())) {
+            leafEvaluations++;
+            return currentBoard.evaluate(side);
+        }
+
+        int opponent = (side == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+
+        // Consulte la table de transposition (sauf à la racine, qui doit choisir un coup)
+        long key = Zobrist.positionKey(currentBoard, side, lastMoveMade);
+        long entry = transpositionTable.probe(key);
+        ttProbes++;
+        if (entry != TranspositionTable.MISS)
+            ttHits++;
+        if (entry != TranspositionTable.MISS && ply > 0 && TranspositionTable.depth(entry) >= depth) {
+            int ttScore = TranspositionTable.score(entry);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT)
+                return ttScore;
+            if (bound == TranspositionTable.LOWER)
+                alpha = Math.max(alpha, ttScore);
+            else
+                beta = Math.min(beta, ttScore);
+            if (beta <= alpha)
+                return ttScore;
+        }
+        int alphaOrig = alpha;
+
+        int[] possibleNextMoves = moveBuffers[ply];
+        int moveCount = currentBoard.generateMoves(lastMoveMade, possibleNextMoves);
+        if (moveCount == 0) {
+            leafEvaluations++;
+            return currentBoard.evaluate(side);
+        }
+
+        int ttMove = (entry != TranspositionTable.MISS) ? TranspositionTable.move(entry) : PackedBoard.NO_MOVE;
+        moveOrdering.order(currentBoard, possibleNextMoves, moveCount, ttMove, ply, side);
+
+        boolean futility = config.futilityPruning && ply > 0 && depth <= FUTILITY_MAX_DEPTH;
+        int staticEval = futility ? currentBoard.evaluate(side) : 0;
+        int margin = config.futilityMargin * depth;
+        boolean selective = futility || config.lateMoveReductions;
+
+        boolean pruned = false; // Un coup ignoré vaut au plus staticEval + margin
+
+        int bestMoveForThisNode = PackedBoard.NO_MOVE;
+        int bestEval = -INFINITY;
+        for (int i = 0; i < moveCount; i++) {
+            int move = possibleNextMoves[i];
+            boolean quiet = selective && isQuiet(currentBoard, move);
+            if (futility && quiet && i > 0 && alpha < WIN_BOUND && staticEval + margin <= alpha) {
+                pruned = true; // Futilité : ce coup calme ne peut pas dépasser alpha
+                continue;
+            }
+            currentBoard.play(move, side);
+
+            int eval;
+            if (i == 0) {
+                eval = -principalVariationSearch(currentBoard, move, depth - 1, ply + 1, -beta, -alpha, opponent);
+            } else {
+                // Fenêtre nulle : le coup est-il meilleur que alpha ? Un coup tardif
+                // est d'abord cherché moins profondément.
+                int reduction = reduction(depth, ply, i, quiet);
+                eval = -principalVariationSearch(currentBoard, move, depth - 1 - reduction, ply + 1, -alpha - 1,
+                        -alpha, opponent);
+                if (reduction > 0 && eval > alpha) {
+                    eval = -principalVariationSearch(currentBoard, move, depth - 1, ply + 1, -alpha - 1, -alpha,
+                            opponent);
+                }
+                if (eval > alpha && eval < beta) {
+                    eval = -principalVariationSearch(currentBoard, move, depth - 1, ply + 1, -beta, -alpha, opponent);
+                }
+            }
+            currentBoard.undo(move);
+            if (stopped)
+                return 0;
+
+            if (eval > bestEval) {
+                bestEval = eval;
+                bestMoveForThisNode = move;
+            }
+            if (eval > alpha) {
+                alpha = eval;
+            }
+            if (alpha >= beta) {
+                moveOrdering.recordCutoff(move, ply, depth, side, i);
+                break;
+            }
+        }
+
+        // Borne sûre malgré les coups ignorés par futilité (voir minimaxAlphaBeta)
+        if (pruned)
+            bestEval = Math.max(bestEval, staticEval + margin);
+
+        int bound;
+        if (bestEval <= alphaOrig)
+            bound = TranspositionTable.UPPER;
+        else if (bestEval >= beta)
+            bound = TranspositionTable.LOWER;
+        else
+            bound = TranspositionTable.EXACT;
+        transpositionTable.store(key, depth, bound, bestEval, bestMoveForThisNode);
+
+        if (ply == 0) {
+            rootBestMove = bestMoveForThisNode;
+        }
+        return bestEval;
+    }
+
+    // Vrai si le coup ne gagne ni ne bloque un plateau local (voir MoveOrdering).
+    private static boolean isQuiet(PackedBoard board, int move) {
+        int b = PackedBoard.boardOf(move);
+        int bit = 1 << PackedBoard.localOf(move);
+        return !PackedBoard.isWinningMask(board.getXMask(b) | bit)
+                && !PackedBoard.isWinningMask(board.getOMask(b) | bit);
+    }
+
+    /**
+     * Réduction (en plies) d'un coup calme trié tard : 0, 1, ou 2 pour les coups
+     * très tardifs d'une recherche profonde. Un coup réduit qui dépasse alpha est
+     * recherché à nouveau à pleine profondeur.
+     */
+    private int reduction(int depth, int ply, int moveIndex, boolean quiet) {
+        if (!config.lateMoveReductions || !quiet || ply == 0 || depth < LMR_MIN_DEPTH || moveIndex < LMR_MIN_MOVES)
+            return 0;
+        return (moveIndex >= LMR_DEEP_MOVES && depth >= 2 * LMR_MIN_DEPTH) ? 2 : 1;
+    }
+
+    /**
+     * QUIESCENCE (forme negamax)
+     * Au bout de la profondeur, une position où un plateau local est sur le point
+     * d'être gagné n'est pas stable : l'évaluation statique ignore la menace. On ne
+     * prolonge alors que les coups forcés : ceux qui gagnent un plateau local (et
+     * ferment peut-être une ligne globale), puis ceux qui bloquent un plateau local
+     * gagnant pour l'adversaire. Le joueur au trait peut aussi s'en tenir à
+     * l'évaluation statique (« stand pat »), qui sert de borne inférieure.
+     *
+     * Pas de table de transposition ni de tri par historique : un noeud coûte une
+     * évaluation (incrémentale) et une génération de coups. Au plus `remaining`
+     * coups sont ajoutés à la variation.
+     */
+    private int quiescence(PackedBoard currentBoard, int lastMoveMade, int ply, int remaining, int alpha,
+            int beta, int side) {
+        nodes++;
+        quiescenceNodes++;
+        if (pollStop())
+            return 0;
+
+        leafEvaluations++;
+        int standPat = currentBoard.evaluate(side);
+        if (currentBoard.checkGlobalWinner() != LocalBoard.EMPTY || currentBoard.isDeadDraw() || remaining == 0
+                || ply >= MoveOrdering.MAX_PLY)
+            return standPat;
+        if (standPat >= beta)
+            return standPat;
+        if (standPat > alpha)
+            alpha = standPat;
+
+        // Ne garde que les coups forcés, les gains locaux avant les blocages
+        int[] moves = moveBuffers[ply];
+        int moveCount = currentBoard.generateMoves(lastMoveMade, moves);
+        boolean isX = side == LocalBoard.X;
+        int forcing = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = forcing; i < moveCount; i++) {
+                int move = moves[i];
+                int b = PackedBoard.boardOf(move);
+                int bit = 1 << PackedBoard.localOf(move);
+                int mask = (isX == (pass == 0)) ? currentBoard.getXMask(b) : currentBoard.getOMask(b);
+                if (PackedBoard.isWinningMask(mask | bit)) {
+                    moves[i] = moves[forcing];
+                    moves[forcing++] = move;
+                }
+            }
+        }
+
+        int opponent = isX ? LocalBoard.O : LocalBoard.X;
+        int bestEval = standPat;
+        for (int i = 0; i < forcing; i++) {
+            int move = moves[i];
+            currentBoard.play(move, side);
+            int eval = -quiescence(currentBoard, move, ply + 1, remaining - 1, -beta, -alpha, opponent);
+            currentBoard.undo(move);
+            if (stopped)
+                return 0;
+
+            if (eval > bestEval)
+                bestEval = eval;
+            if (eval > alpha)
+                alpha = eval;
+            if (alpha >= beta)
+                break;
+        }
+        return bestEval;
+    }
+}
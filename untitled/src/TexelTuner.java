@@ -0,0 +1,439 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * TEXEL TUNER
+ *
+ * Ajuste les paramètres de l'heuristique (EvalParams) sur des parties jouées
+ * contre soi-même, méthode « Texel » : l'évaluation e d'une position, du point de
+ * vue de X, prédit le score final de X par 1 / (1 + 10^(-K e / 400)). On cherche
+ * les paramètres qui minimisent l'erreur quadratique moyenne entre cette
+ * prédiction et le résultat réel (1, 1/2 ou 0).
+ *
+ * 1. `collect` joue des parties (options -Dsearch.*, 50 ms par coup et un seul
+ *    thread par partie, parties en parallèle sur tous les coeurs) depuis des
+ *    ouvertures au hasard, et écrit une ligne par partie : le score de X puis
+ *    les cases jouées.
+ * 2. `tune` rejoue ces parties et garde les positions calmes (le joueur au trait
+ *    ne peut pas gagner un plateau local tout de suite). Chaque position est
+ *    réduite à ses caractéristiques (lignes locales, centres et plateaux gagnés
+ *    par plateau, lignes globales à deux plateaux) : l'évaluation se recalcule
+ *    pour d'autres paramètres sans reconstruire les tables. K est ajusté une
+ *    fois sur les paramètres de départ, puis une descente par coordonnées
+ *    essaie ±pas sur chaque paramètre tant que l'erreur baisse. L'erreur est
+ *    calculée avec un flux parallèle sur toutes les positions.
+ *
+ * Les poids des plateaux restent symétriques (coins, côtés, centre). Le fichier
+ * écrit est lu au démarrage par EvalParams (-Deval.params).
+ *
+ * Utilisation : java TexelTuner collect [parties] [fichier]
+ *               java TexelTuner tune [fichier] [sortie]
+ * (défaut : 2000 parties, texel_games.txt, eval_params.txt)
+ */
+public class TexelTuner {
+
+    private static final String DEFAULT_GAMES = "texel_games.txt";
+
+    // Caractéristiques d'une position : pour chaque plateau, lignes à deux pièces,
+    // lignes à une pièce, centre et plateau gagné (X moins O), puis lignes globales
+    private static final int PER_BOARD = 4;
+    private static final int FEATURES = 9 * PER_BOARD + 1;
+
+    // Paramètres ajustés : poids des coins, des côtés et du centre (partagés par les
+    // plateaux symétriques), localWin, twoInRow, lineTwo, lineOne et center (voir get/set)
+    private static final int PARAMETERS = 8;
+    private static final int[][] WEIGHT_GROUPS = { { 0, 2, 6, 8 }, { 1, 3, 5, 7 }, { 4 } };
+
+    private int[] features = new int[FEATURES * 4096];
+    private double[] results = new double[4096];
+    private int[] expected = new int[4096]; // PackedBoard.evaluate(X) avec les paramètres chargés
+    private int count;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String mode = args.length > 0 ? args[0] : "";
+        if (mode.equals("collect")) {
+            collect(args.length > 1 ? Integer.parseInt(args[1]) : 2000, args.length > 2 ? args[2] : DEFAULT_GAMES);
+        } else if (mode.equals("tune")) {
+            TexelTuner tuner = new TexelTuner();
+            tuner.tune(args.length > 1 ? args[1] : DEFAULT_GAMES,
+                    args.length > 2 ? args[2] : EvalParams.DEFAULT_PATH);
+        } else {
+            System.out.println("Usage: java TexelTuner collect [games] [file]");
+            System.out.println("       java TexelTuner tune [file] [output]");
+        }
+    }
+
+    /*
+     * Collecte
+     */
+    private static void collect(int games, String path) throws InterruptedException, IOException {
+        setDefault("log.level", "tournament");
+        setDefault("search.timeLimitMillis", "50");
+        setDefault("search.ttSizeMb", "8");
+        setDefault("search.endgameCacheMb", "4");
+        SearchConfig config = SearchConfig.fromSystemProperties();
+        config.threads = 1;
+        config.ponder = false;
+        config.statsFile = "";
+
+        int openingPlies = Integer.getInteger("tuner.openingPlies", 8);
+        int[][] openings = Tournament.randomOpenings(games, openingPlies,
+                new Random(Long.getLong("tuner.seed", 320)));
+        int parallel = Runtime.getRuntime().availableProcessors();
+        System.out.println("Collecting " + games + " games (" + parallel + " at a time, " + openingPlies
+                + " random opening plies): " + config);
+
+        String[] lines = new String[games];
+        AtomicInteger done = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallel, runnable -> {
+            Thread thread = new Thread(runnable, "texel-collect");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.currentTimeMillis();
+        for (int g = 0; g < games; g++) {
+            int game = g;
+            pool.execute(() -> {
+                lines[game] = playGame(config, openings[game]);
+                int finished = done.incrementAndGet();
+                if (finished % Math.max(1, games / 10) == 0)
+                    System.out.println("  " + finished + "/" + games + " games");
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        Log.flush();
+
+        List<String> output = new ArrayList<>(games);
+        for (String line : lines) {
+            if (line != null)
+                output.add(line);
+        }
+        Files.write(Path.of(path), output);
+        System.out.println("Wrote " + output.size() + " games to " + path + " in "
+                + (System.currentTimeMillis() - start) / 1000 + " s");
+    }
+
+    // Joue une partie; renvoie "score de X" suivi des cases jouées, ou null si un coup est illégal.
+    private static String playGame(SearchConfig config, int[] opening) {
+        GlobalBoard board = new GlobalBoard();
+        StringBuilder moves = new StringBuilder(256);
+        int side = LocalBoard.X;
+        GlobalMove last = null;
+        for (int cell : opening) {
+            last = GlobalMove.fromCell(cell);
+            board.play(last, side);
+            moves.append(' ').append(cell);
+            side = Tournament.opponent(side);
+        }
+
+        Player x = Player.create(LocalBoard.X, config);
+        Player o = Player.create(LocalBoard.O, config);
+        while (true) {
+            PackedBoard packed = board.getPackedBoard();
+            int winner = packed.checkGlobalWinner();
+            if (winner != LocalBoard.EMPTY || packed.isFull() || packed.isDeadDraw()) {
+                x.close();
+                o.close();
+                String score = winner == LocalBoard.X ? "1" : winner == LocalBoard.O ? "0" : "0.5";
+                return score + moves;
+            }
+            GlobalMove move = (side == LocalBoard.X ? x : o).findBestMove(board, last);
+            if (move == null || !board.play(move, side)) {
+                x.close();
+                o.close();
+                return null;
+            }
+            moves.append(' ').append(move.toCell());
+            last = move;
+            side = Tournament.opponent(side);
+        }
+    }
+
+    private static void setDefault(String property, String value) {
+        if (System.getProperty(property) == null)
+            System.setProperty(property, value);
+    }
+
+    /*
+     * Ajustement
+     */
+    private void tune(String path, String output) throws IOException {
+        int skipPlies = Integer.getInteger("tuner.skipPlies", 8);
+        int maxPasses = Integer.getInteger("tuner.maxPasses", 100);
+        load(path, skipPlies);
+        if (count == 0) {
+            System.out.println("No positions in " + path);
+            return;
+        }
+
+        // Les caractéristiques doivent reproduire exactement PackedBoard.evaluate
+        EvalParams params = EvalParams.CURRENT.copy();
+        int mismatches = verify(params);
+        if (mismatches > 0) {
+            System.out.println("ERROR: " + mismatches + " position(s) where the features differ from evaluate");
+            return;
+        }
+
+        double k = fitK(params);
+        double error = error(params, k);
+        double startError = error;
+        System.out.printf("%d positions, K = %.4f, error %.6f%n", count, k, error);
+        System.out.println("Start: " + params);
+
+        for (int pass = 1; pass <= maxPasses; pass++) {
+            boolean improved = false;
+            for (int p = 0; p < PARAMETERS; p++) {
+                int value = get(params, p);
+                int step = Math.max(1, value / 20);
+                for (int direction : new int[] { 1, -1 }) {
+                    EvalParams candidate = params.copy();
+                    set(candidate, p, value + direction * step);
+                    if (candidate.validate() != null)
+                        continue;
+                    double candidateError = error(candidate, k);
+                    if (candidateError < error) {
+                        params = candidate;
+                        error = candidateError;
+                        improved = true;
+                        break;
+                    }
+                }
+            }
+            System.out.printf("Pass %d: error %.6f  %s%n", pass, error, params);
+            if (!improved)
+                break;
+        }
+
+        params.write(Path.of(output), String.format("TexelTuner: %d positions from %s, K = %.4f, error %.6f -> %.6f",
+                count, path, k, startError, error));
+        System.out.println("Wrote " + output);
+    }
+
+    // Rejoue les parties et garde les caractéristiques des positions calmes.
+    private void load(String path, int skipPlies) throws IOException {
+        int[] moves = new int[81];
+        int[] xMasks = new int[9];
+        int[] oMasks = new int[9];
+        for (String line : Files.readAllLines(Path.of(path))) {
+            String[] parts = line.trim().split(" ");
+            if (parts.length < 2)
+                continue;
+            double result = Double.parseDouble(parts[0]);
+            PackedBoard board = new PackedBoard();
+            int side = LocalBoard.X;
+            for (int ply = 1; ply < parts.length; ply++) {
+                int cell = Integer.parseInt(parts[ply]);
+                board.play(cell, side);
+                side = Tournament.opponent(side);
+                if (ply < skipPlies || board.checkGlobalWinner() != LocalBoard.EMPTY || board.isFull()
+                        || board.isDeadDraw())
+                    continue;
+                readMasks(board, xMasks, oMasks);
+                if (!isQuiet(board, cell, side, xMasks, oMasks, moves))
+                    continue;
+                if (count == results.length) {
+                    results = Arrays.copyOf(results, count * 2);
+                    expected = Arrays.copyOf(expected, count * 2);
+                    features = Arrays.copyOf(features, count * 2 * FEATURES);
+                }
+                expected[count] = board.evaluate(LocalBoard.X);
+                extract(xMasks, oMasks, count * FEATURES);
+                results[count++] = result;
+            }
+        }
+    }
+
+    // Positions dont l'évaluation des caractéristiques diffère de PackedBoard.evaluate.
+    private int verify(EvalParams params) {
+        int mismatches = 0;
+        for (int i = 0; i < count; i++) {
+            if (evaluate(params, i * FEATURES) != expected[i])
+                mismatches++;
+        }
+        return mismatches;
+    }
+
+    private static void readMasks(PackedBoard board, int[] xMasks, int[] oMasks) {
+        for (int b = 0; b < 9; b++) {
+            int x = 0;
+            int o = 0;
+            for (int i = 0; i < 9; i++) {
+                int piece = board.getPiece(b * 9 + i);
+                if (piece == LocalBoard.X)
+                    x |= 1 << i;
+                else if (piece == LocalBoard.O)
+                    o |= 1 << i;
+            }
+            xMasks[b] = x;
+            oMasks[b] = o;
+        }
+    }
+
+    // Vrai si aucun coup légal ne gagne un plateau local pour le joueur au trait.
+    private static boolean isQuiet(PackedBoard board, int lastMove, int side, int[] xMasks, int[] oMasks,
+            int[] moves) {
+        int[] mine = side == LocalBoard.X ? xMasks : oMasks;
+        int moveCount = board.generateMoves(lastMove, moves);
+        for (int i = 0; i < moveCount; i++) {
+            int b = PackedBoard.boardOf(moves[i]);
+            if (PackedBoard.isWinningMask(mine[b] | (1 << PackedBoard.localOf(moves[i]))))
+                return false;
+        }
+        return true;
+    }
+
+    // Écrit les caractéristiques de la position à features[base], du point de vue de X.
+    private void extract(int[] xMasks, int[] oMasks, int base) {
+        int metaX = 0;
+        int metaO = 0;
+        int metaClosed = 0;
+        for (int b = 0; b < 9; b++) {
+            int x = xMasks[b];
+            int o = oMasks[b];
+            int two = 0;
+            int one = 0;
+            int center = 0;
+            int won = 0;
+            // Même priorité que GlobalBoard : X est vérifié en premier
+            if (PackedBoard.isWinningMask(x)) {
+                won = 1;
+                metaX |= 1 << b;
+                metaClosed |= 1 << b;
+            } else if (PackedBoard.isWinningMask(o)) {
+                won = -1;
+                metaO |= 1 << b;
+                metaClosed |= 1 << b;
+            } else if ((x | o) == PackedBoard.FULL_MASK) {
+                metaClosed |= 1 << b;
+            } else {
+                for (int line : PackedBoard.LINES) {
+                    int m = Integer.bitCount(x & line);
+                    int t = Integer.bitCount(o & line);
+                    if (t == 0) {
+                        if (m == 2)
+                            two++;
+                        else if (m == 1)
+                            one++;
+                    } else if (m == 0) {
+                        if (t == 2)
+                            two--;
+                        else if (t == 1)
+                            one--;
+                    }
+                }
+                if ((x & 0x010) != 0)
+                    center = 1;
+                else if ((o & 0x010) != 0)
+                    center = -1;
+            }
+            int offset = base + b * PER_BOARD;
+            features[offset] = two;
+            features[offset + 1] = one;
+            features[offset + 2] = center;
+            features[offset + 3] = won;
+        }
+        features[base + 9 * PER_BOARD] = twoInRow(metaX, metaClosed) - twoInRow(metaO, metaClosed);
+    }
+
+    // Lignes globales avec 2 plateaux gagnés et le 3ème encore ouvert.
+    private static int twoInRow(int won, int closed) {
+        int lines = 0;
+        for (int line : PackedBoard.LINES) {
+            if (Integer.bitCount(won & line) == 2 && (line & ~won & ~closed) != 0)
+                lines++;
+        }
+        return lines;
+    }
+
+    // Évaluation du point de vue de X avec les paramètres donnés (même formule que PackedBoard.evaluate).
+    private int evaluate(EvalParams params, int base) {
+        int score = 0;
+        for (int b = 0; b < 9; b++) {
+            int offset = base + b * PER_BOARD;
+            int local = features[offset] * params.lineTwoScore + features[offset + 1] * params.lineOneScore
+                    + features[offset + 2] * params.centerScore + features[offset + 3] * params.localWinScore;
+            score += local * params.boardWeights[b];
+        }
+        return score + features[base + 9 * PER_BOARD] * params.globalTwoInRowScore;
+    }
+
+    // Erreur quadratique moyenne des prédictions, calculée en parallèle.
+    private double error(EvalParams params, double k) {
+        double total = IntStream.range(0, count).parallel().mapToDouble(i -> {
+            double predicted = 1 / (1 + Math.pow(10, -k * evaluate(params, i * FEATURES) / 400));
+            double difference = results[i] - predicted;
+            return difference * difference;
+        }).sum();
+        return total / count;
+    }
+
+    // K qui minimise l'erreur pour les paramètres donnés (recherche ternaire sur log K).
+    private double fitK(EvalParams params) {
+        double low = Math.log(1e-3);
+        double high = Math.log(1e2);
+        for (int i = 0; i < 60; i++) {
+            double a = low + (high - low) / 3;
+            double b = high - (high - low) / 3;
+            if (error(params, Math.exp(a)) < error(params, Math.exp(b)))
+                high = b;
+            else
+                low = a;
+        }
+        return Math.exp((low + high) / 2);
+    }
+
+    private static int get(EvalParams params, int p) {
+        switch (p) {
+            case 0:
+            case 1:
+            case 2:
+                return params.boardWeights[WEIGHT_GROUPS[p][0]];
+            case 3:
+                return params.localWinScore;
+            case 4:
+                return params.globalTwoInRowScore;
+            case 5:
+                return params.lineTwoScore;
+            case 6:
+                return params.lineOneScore;
+            default:
+                return params.centerScore;
+        }
+    }
+
+    private static void set(EvalParams params, int p, int value) {
+        switch (p) {
+            case 0:
+            case 1:
+            case 2:
+                for (int b : WEIGHT_GROUPS[p])
+                    params.boardWeights[b] = value;
+                break;
+            case 3:
+                params.localWinScore = value;
+                break;
+            case 4:
+                params.globalTwoInRowScore = value;
+                break;
+            case 5:
+                params.lineTwoScore = value;
+                break;
+            case 6:
+                params.lineOneScore = value;
+                break;
+            default:
+                params.centerScore = value;
+        }
+    }
+}
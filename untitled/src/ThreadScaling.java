@@ -0,0 +1,53 @@
+/**
+ * THREAD SCALING
+ *
+ * Mesure le gain du mode Lazy SMP : pour chaque nombre de threads, cherche le
+ * meilleur coup sur quelques positions fixes et affiche les noeuds par seconde et
+ * la profondeur atteinte par le thread principal.
+ *
+ * Utilisation : java ThreadScaling [nombres de threads...] (défaut : 1 2 4 8)
+ */
+public class ThreadScaling {
+
+    // Positions de test : suites de coups au format du serveur, jouées depuis le début
+    private static final String[][] POSITIONS = {
+            {},
+            { "E5", "E4", "E2", "E6" },
+            { "E5", "D4", "A2", "B5", "E6", "E7", "E3", "F9", "H8", "E4" },
+    };
+
+    public static void main(String[] args) {
+        int[] threadCounts = { 1, 2, 4, 8 };
+        if (args.length > 0) {
+            threadCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++)
+                threadCounts[i] = Integer.parseInt(args[i]);
+        }
+
+        for (int threads : threadCounts) {
+            SearchConfig config = SearchConfig.fromSystemProperties();
+            config.threads = threads;
+            long nodes = 0;
+            long millis = 0;
+            int depthSum = 0;
+            for (String[] moves : POSITIONS) {
+                GlobalBoard board = new GlobalBoard();
+                GlobalMove last = null;
+                int mark = LocalBoard.X;
+                for (String moveStr : moves) {
+                    last = Client.parseMoveString(moveStr);
+                    board.play(last, mark);
+                    mark = (mark == LocalBoard.X) ? LocalBoard.O : LocalBoard.X;
+                }
+                CPUPlayer player = new CPUPlayer(mark, config);
+                player.findBestMove(board, last);
+                nodes += player.getLastNodes();
+                millis += player.getLastElapsedMillis();
+                depthSum += player.getLastDepth();
+                player.close();
+            }
+            System.out.printf("threads=%d  nodes/s=%d  average depth=%.1f%n", threads,
+                    nodes * 1000 / Math.max(1, millis), (double) depthSum / POSITIONS.length);
+        }
+    }
+}
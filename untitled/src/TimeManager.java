@@ -0,0 +1,172 @@
+/**
+ * TIME MANAGER
+ *
+ * Gère le budget de temps d'un coup :
+ * - une limite dure (timeLimitMillis de SearchConfig) que la recherche ne dépasse
+ *   jamais; l'horloge monotone n'est lue que tous les `nodesPerTimeCheck` noeuds,
+ * - une cible souple qui décide si une nouvelle itération vaut la peine d'être
+ *   commencée, selon le facteur de branchement observé.
+ *
+ * La cible augmente quand le meilleur coup change d'une itération à l'autre ou
+ * quand le score baisse, et diminue quand le meilleur coup reste stable.
+ *
+ * L'arrêt est coopératif : un drapeau volatile que les threads de recherche
+ * consultent, sans exception.
+ *
+ * Avec `nodeLimit` (SearchConfig), la recherche s'arrête aussi après ce nombre
+ * de noeuds du thread principal : à un thread, le coup ne dépend plus de la
+ * vitesse de la machine (tournois, réglages).
+ */
+public class TimeManager {
+
+    private static final double MOVE_CHANGE_FACTOR = 1.4; // Le meilleur coup a changé
+    private static final double SCORE_DROP_FACTOR = 1.25; // Le score a baissé
+    private static final double STABLE_FACTOR = 0.9; // Le meilleur coup est stable
+    private static final int SCORE_DROP_MARGIN = 30;
+
+    private final long hardLimitNanos;
+    private final long baseSoftLimitNanos;
+    private final int checkMask;
+    private final long nodeLimit; // 0 : pas de limite
+
+    private volatile boolean stopRequested;
+    private long startNanos;
+    private long softLimitNanos;
+
+    // Dernières itérations terminées
+    private int previousBestMove;
+    private int previousScore;
+    private int olderScore; // Score de l'avant-dernière itération
+    private int completedIterations;
+    private long lastIterationNanos;
+    private long lastIterationNodes;
+    private double branchingFactor;
+    private long searchedNodes; // Noeuds des itérations terminées
+
+    public TimeManager(SearchConfig config) {
+        this.hardLimitNanos = config.timeLimitMillis * 1_000_000L;
+        this.baseSoftLimitNanos = (long) (hardLimitNanos * config.softTimeRatio);
+        // Arrondi à une puissance de 2 pour remplacer le modulo par un masque
+        this.checkMask = Integer.highestOneBit(Math.max(1, config.nodesPerTimeCheck)) - 1;
+        this.nodeLimit = config.nodeLimit;
+    }
+
+    // Début d'un nouveau coup.
+    public void start() {
+        start(System.nanoTime());
+    }
+
+    // Début d'un nouveau coup dont le temps court depuis `startNanos` (System.nanoTime()).
+    public void start(long startNanos) {
+        this.startNanos = startNanos;
+        softLimitNanos = baseSoftLimitNanos;
+        stopRequested = false;
+        previousBestMove = PackedBoard.NO_MOVE;
+        lastIterationNanos = 0;
+        lastIterationNodes = 0;
+        branchingFactor = 0;
+        completedIterations = 0;
+        searchedNodes = 0;
+    }
+
+    // Relance le drapeau d'arrêt sans toucher au budget (réflexion).
+    public void resetStop() {
+        stopRequested = false;
+    }
+
+    public void stop() {
+        stopRequested = true;
+    }
+
+    public boolean isStopRequested() {
+        return stopRequested;
+    }
+
+    public long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    /**
+     * Appelé à chaque noeud par le thread qui possède l'horloge. Lit l'horloge
+     * seulement tous les `nodesPerTimeCheck` noeuds et lève le drapeau d'arrêt
+     * quand la limite dure ou la limite de noeuds est atteinte.
+     */
+    public boolean checkTime(long nodes) {
+        if (nodeLimit > 0 && nodes >= nodeLimit) {
+            stopRequested = true;
+        }
+        return checkTime(nodes, hardLimitNanos);
+    }
+
+    // Même vérification avec une limite plus courte, en nanosecondes depuis le début du coup.
+    public boolean checkTime(long nodes, long limitNanos) {
+        if ((nodes & checkMask) == 0 && System.nanoTime() - startNanos >= limitNanos) {
+            stopRequested = true;
+        }
+        return stopRequested;
+    }
+
+    // Cible souple actuelle, en nanosecondes depuis le début du coup.
+    public long getSoftLimitNanos() {
+        return softLimitNanos;
+    }
+
+    // Limite dure, en nanosecondes depuis le début du coup.
+    public long getHardLimitNanos() {
+        return hardLimitNanos;
+    }
+
+    // Noeuds par coup du thread principal (0 : seulement le temps).
+    public long getNodeLimit() {
+        return nodeLimit;
+    }
+
+    /**
+     * Fin d'une itération : met à jour le facteur de branchement observé et ajuste
+     * la cible souple selon la stabilité du meilleur coup et du score.
+     */
+    public void onIterationComplete(int bestMove, int score, long iterationNanos, long iterationNodes) {
+        if (lastIterationNodes > 0) {
+            branchingFactor = (double) iterationNodes / lastIterationNodes;
+        }
+
+        if (previousBestMove != PackedBoard.NO_MOVE) {
+            double factor = (bestMove != previousBestMove) ? MOVE_CHANGE_FACTOR : STABLE_FACTOR;
+            // Le score oscille entre profondeurs paires et impaires : comparer à
+            // l'itération de même parité quand elle existe.
+            int reference = completedIterations >= 2 ? olderScore : previousScore;
+            if (score < reference - SCORE_DROP_MARGIN) {
+                factor *= SCORE_DROP_FACTOR;
+            }
+            softLimitNanos = Math.min(hardLimitNanos,
+                    Math.max(baseSoftLimitNanos / 2, (long) (softLimitNanos * factor)));
+        }
+
+        previousBestMove = bestMove;
+        olderScore = previousScore;
+        previousScore = score;
+        completedIterations++;
+        lastIterationNanos = iterationNanos;
+        lastIterationNodes = iterationNodes;
+        searchedNodes += iterationNodes;
+    }
+
+    /**
+     * Décide s'il faut commencer l'itération suivante : il faut être sous la cible
+     * souple et que la durée prévue (dernière itération x facteur de branchement)
+     * tienne dans la limite dure, et de même pour les noeuds avec `nodeLimit`.
+     */
+    public boolean canStartIteration() {
+        long elapsed = System.nanoTime() - startNanos;
+        if (stopRequested || elapsed >= softLimitNanos)
+            return false;
+        double factor = branchingFactor > 0 ? branchingFactor : 1.0;
+        if (nodeLimit > 0 && searchedNodes + (long) (lastIterationNodes * factor) > nodeLimit)
+            return false;
+        return elapsed + (long) (lastIterationNanos * factor) < hardLimitNanos;
+    }
+
+    public double getBranchingFactor() {
+        return branchingFactor;
+    }
+}
@@ -0,0 +1,285 @@
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TOURNAMENT
+ *
+ * Fait jouer deux configurations l'une contre l'autre, dans le même processus :
+ * « baseline » et « candidate ». Les deux partent des options -Dsearch.*; celles
+ * de -Dbaseline.* et -Dcandidate.* s'ajoutent par-dessus (ex. -Dcandidate.algorithm=PVS).
+ * Chaque joueur cherche avec un seul thread et sans réflexion; les parties se
+ * jouent en parallèle sur tous les coeurs.
+ *
+ * Les ouvertures sont tirées au hasard (`tournament.openingPlies` coups légaux,
+ * graine `tournament.seed`) et chacune est jouée deux fois, couleurs inversées.
+ * Budget court par coup : 100 ms par défaut (search.timeLimitMillis), ou un
+ * nombre fixe de noeuds avec search.nodeLimit.
+ *
+ * Affiche victoires/nulles/défaites du candidat, la différence Elo avec son
+ * intervalle à 95 % et le rapport de vraisemblance du SPRT (H0 : elo0, H1 :
+ * elo1, risques alpha et beta). Le tournoi s'arrête dès que le SPRT conclut.
+ *
+ * Utilisation : java Tournament [parties] [parties simultanées]
+ * (défaut : 1000, nombre de coeurs)
+ */
+public class Tournament {
+
+    private static final int RESULT_WIN = 2; // Points du candidat, en demi-points
+    private static final int RESULT_DRAW = 1;
+    private static final int RESULT_LOSS = 0;
+
+    private final SearchConfig baseline;
+    private final SearchConfig candidate;
+    private final int[][] openings;
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound; // Accepter H0 sous cette borne du LLR
+    private final double upperBound; // Accepter H1 au-dessus
+    private final int reportEvery;
+
+    private volatile boolean finished;
+    private int wins;
+    private int draws;
+    private int losses;
+    private int illegalMoves;
+    private int reportedGames; // Parties comptées au dernier affichage
+
+    private Tournament(SearchConfig baseline, SearchConfig candidate, int[][] openings, double elo0, double elo1,
+            double alpha, double beta, int reportEvery) {
+        this.baseline = baseline;
+        this.candidate = candidate;
+        this.openings = openings;
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+        this.reportEvery = reportEvery;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int parallel = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+
+        // Valeurs par défaut propres au tournoi, si elles ne sont pas données
+        setDefault("log.level", "tournament");
+        setDefault("search.timeLimitMillis", "100");
+        setDefault("search.ttSizeMb", "8");
+        setDefault("search.endgameCacheMb", "4");
+
+        SearchConfig baseline = SearchConfig.fromSystemProperties("baseline.", SearchConfig.fromSystemProperties());
+        SearchConfig candidate = SearchConfig.fromSystemProperties("candidate.", SearchConfig.fromSystemProperties());
+        for (SearchConfig config : new SearchConfig[] { baseline, candidate }) {
+            config.threads = 1;
+            config.ponder = false;
+            config.statsFile = "";
+        }
+
+        int openingPlies = Integer.getInteger("tournament.openingPlies", 4);
+        long seed = Long.getLong("tournament.seed", 320);
+        int[][] openings = randomOpenings((games + 1) / 2, openingPlies, new Random(seed));
+
+        Tournament tournament = new Tournament(baseline, candidate, openings,
+                Double.parseDouble(System.getProperty("tournament.elo0", "0")),
+                Double.parseDouble(System.getProperty("tournament.elo1", "10")),
+                Double.parseDouble(System.getProperty("tournament.alpha", "0.05")),
+                Double.parseDouble(System.getProperty("tournament.beta", "0.05")),
+                Math.max(1, Math.min(100, games / 20)));
+
+        System.out.println("Baseline:  " + baseline);
+        System.out.println("Candidate: " + candidate);
+        System.out.println(games + " games, " + parallel + " at a time, " + openingPlies + " random opening plies");
+        long start = System.currentTimeMillis();
+        tournament.run(games, parallel);
+        tournament.report();
+        System.out.println("Finished in " + (System.currentTimeMillis() - start) / 1000 + " s");
+    }
+
+    private static void setDefault(String property, String value) {
+        if (System.getProperty(property) == null)
+            System.setProperty(property, value);
+    }
+
+    private void run(int games, int parallel) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallel, runnable -> {
+            Thread thread = new Thread(runnable, "tournament");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int g = 0; g < games; g++) {
+            int game = g;
+            pool.execute(() -> {
+                if (finished)
+                    return;
+                // Parties paires : le candidat joue X; impaires : O, même ouverture
+                boolean candidateIsX = (game & 1) == 0;
+                int[] opening = openings[game / 2];
+                int winner = candidateIsX ? playGame(candidate, baseline, opening)
+                        : playGame(baseline, candidate, opening);
+                int candidateMark = candidateIsX ? LocalBoard.X : LocalBoard.O;
+                record(winner == LocalBoard.EMPTY ? RESULT_DRAW
+                        : winner == candidateMark ? RESULT_WIN : RESULT_LOSS);
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        Log.flush();
+    }
+
+    /**
+     * Joue une partie depuis l'ouverture donnée (cases 0 à 80, X commence).
+     * Renvoie le gagnant, ou EMPTY pour une nulle. Un coup illégal ou l'absence
+     * de coup perd la partie.
+     */
+    private int playGame(SearchConfig xConfig, SearchConfig oConfig, int[] opening) {
+        GlobalBoard board = new GlobalBoard();
+        int side = LocalBoard.X;
+        GlobalMove last = null;
+        for (int cell : opening) {
+            last = GlobalMove.fromCell(cell);
+            board.play(last, side);
+            side = opponent(side);
+        }
+
+        Player x = Player.create(LocalBoard.X, xConfig);
+        Player o = Player.create(LocalBoard.O, oConfig);
+        int[] legal = new int[81];
+        while (true) {
+            PackedBoard packed = board.getPackedBoard();
+            int winner = packed.checkGlobalWinner();
+            if (winner != LocalBoard.EMPTY || packed.isFull() || packed.isDeadDraw()) {
+                x.close();
+                o.close();
+                return winner; // EMPTY pour une nulle
+            }
+
+            GlobalMove move = (side == LocalBoard.X ? x : o).findBestMove(board, last);
+            // GlobalBoard.play ne vérifie pas le plateau imposé par le dernier coup
+            int lastCell = last == null ? PackedBoard.NO_MOVE : last.toCell();
+            if (move == null || !isLegal(packed, lastCell, move.toCell(), legal) || !board.play(move, side)) {
+                synchronized (this) {
+                    illegalMoves++;
+                }
+                x.close();
+                o.close();
+                return opponent(side);
+            }
+            last = move;
+            side = opponent(side);
+        }
+    }
+
+    private static boolean isLegal(PackedBoard board, int lastMove, int move, int[] moves) {
+        int count = board.generateMoves(lastMove, moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move)
+                return true;
+        }
+        return false;
+    }
+
+    // Ouvertures de `plies` coups légaux au hasard, sans partie déjà terminée.
+    static int[][] randomOpenings(int count, int plies, Random random) {
+        int[][] openings = new int[count][];
+        int[] moves = new int[81];
+        for (int i = 0; i < count; i++) {
+            int[] opening;
+            do {
+                opening = new int[plies];
+                PackedBoard board = new PackedBoard();
+                int side = LocalBoard.X;
+                int last = PackedBoard.NO_MOVE;
+                for (int ply = 0; ply < plies; ply++) {
+                    int moveCount = board.generateMoves(last, moves);
+                    last = moves[random.nextInt(moveCount)];
+                    board.play(last, side);
+                    side = opponent(side);
+                    opening[ply] = last;
+                }
+                if (board.checkGlobalWinner() == LocalBoard.EMPTY && !board.isDeadDraw())
+                    break;
+            } while (true);
+            openings[i] = opening;
+        }
+        return openings;
+    }
+
+    static int opponent(int mark) {
+        return mark == LocalBoard.X ? LocalBoard.O : LocalBoard.X;
+    }
+
+    private synchronized void record(int result) {
+        if (finished)
+            return;
+        if (result == RESULT_WIN)
+            wins++;
+        else if (result == RESULT_DRAW)
+            draws++;
+        else
+            losses++;
+
+        double llr = logLikelihoodRatio();
+        if (llr <= lowerBound || llr >= upperBound) {
+            finished = true;
+            System.out.println("SPRT: " + (llr >= upperBound ? "H1 accepted (elo >= " + elo1 + ")"
+                    : "H0 accepted (elo <= " + elo0 + ")") + " after " + (wins + draws + losses) + " games");
+        } else if ((wins + draws + losses) % reportEvery == 0) {
+            report();
+        }
+    }
+
+    private synchronized void report() {
+        int games = wins + draws + losses;
+        if (games == 0 || games == reportedGames)
+            return;
+        reportedGames = games;
+        double score = (wins + 0.5 * draws) / games;
+        double deviation = Math.sqrt(variance(score) / games);
+        System.out.printf("Games %d: +%d =%d -%d  score %.1f%%  Elo %s [%s, %s]  LLR %.2f [%.2f, %.2f]%s%n", games,
+                wins, draws, losses, 100 * score, formatElo(elo(score)), formatElo(elo(score - 1.96 * deviation)),
+                formatElo(elo(score + 1.96 * deviation)), logLikelihoodRatio(), lowerBound, upperBound,
+                illegalMoves > 0 ? "  illegal moves: " + illegalMoves : "");
+    }
+
+    // Variance du score d'une partie (1, 1/2 ou 0 pour le candidat).
+    private double variance(double score) {
+        int games = wins + draws + losses;
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score)
+                + losses * score * score) / games;
+    }
+
+    /**
+     * Log du rapport de vraisemblance du SPRT, avec l'approximation normale du
+     * score par partie (victoires, nulles et défaites) : H1 (elo1) contre H0 (elo0).
+     */
+    private double logLikelihoodRatio() {
+        int games = wins + draws + losses;
+        if (games == 0)
+            return 0;
+        double score = (wins + 0.5 * draws) / games;
+        double variance = variance(score);
+        if (variance <= 0)
+            return 0;
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return games * (s1 - s0) * (2 * score - s0 - s1) / (2 * variance);
+    }
+
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    private static double elo(double score) {
+        if (score <= 0)
+            return Double.NEGATIVE_INFINITY;
+        if (score >= 1)
+            return Double.POSITIVE_INFINITY;
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    private static String formatElo(double elo) {
+        return Double.isInfinite(elo) ? (elo > 0 ? "+inf" : "-inf") : String.format("%+.1f", elo);
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.Arrays;
+
+/**
+ * TRANSPOSITION TABLE
+ *
+ * Table de hachage de taille fixe, allouée une seule fois, qui conserve le
+ * résultat des positions déjà cherchées. Chaque entrée tient dans deux long :
+ * la clé Zobrist et les données compactées (score, meilleur coup, profondeur,
+ * type de borne, génération).
+ *
+ * Les entrées sont groupées par paires : la première case garde l'entrée la plus
+ * profonde, la seconde est toujours remplacée. Les entrées d'une recherche
+ * précédente (autre génération) sont remplacées en priorité.
+ *
+ * La table est partagée sans verrou entre les threads de recherche : chaque clé
+ * est stockée XOR ses données, ce qui permet de détecter les écritures concurrentes.
+ */
+public class TranspositionTable {
+
+    // Types de borne
+    public static final int EXACT = 0;
+    public static final int LOWER = 1; // Le vrai score est >= score (coupure beta)
+    public static final int UPPER = 2; // Le vrai score est <= score (aucun coup > alpha)
+
+    public static final long MISS = 0L;
+
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+    private int generation;
+
+    /**
+     * @param sizeMb mémoire de la table en Mo, arrondie à la puissance de 2 inférieure
+     */
+    public TranspositionTable(int sizeMb) {
+        long entries = Math.max(2, ((long) sizeMb << 20) / ENTRY_BYTES);
+        int capacity = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+        keys = new long[capacity];
+        data = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    // Nouvelle recherche : les entrées existantes deviennent remplaçables.
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    // Vide la table (nouvelle partie, ou mesures qui doivent être reproductibles).
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, MISS);
+        generation = 0;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    // Renvoie les données de la position, ou MISS si elle n'est pas dans la table.
+    public long probe(long key) {
+        int slot = (int) key & mask & ~1;
+        for (int i = slot; i <= slot + 1; i++) {
+            long entry = data[i];
+            if (entry != MISS && (keys[i] ^ entry) == key)
+                return entry;
+        }
+        return MISS;
+    }
+
+    // Enregistre le résultat d'une recherche. `move` est une case 0 à 80 ou
+    // PackedBoard.NO_MOVE.
+    public void store(long key, int depth, int bound, int score, int move) {
+        int slot = (int) key & mask & ~1;
+        long entry = pack(depth, bound, score, move);
+        long deepEntry = data[slot];
+        long deepKey = keys[slot] ^ deepEntry;
+
+        if (deepEntry == MISS || deepKey == key || generation(deepEntry) != generation
+                || depth >= depth(deepEntry)) {
+            // Garde l'ancienne entrée profonde dans la case toujours remplacée
+            if (deepEntry != MISS && deepKey != key) {
+                write(slot + 1, deepKey, deepEntry);
+            }
+            write(slot, key, entry);
+        } else {
+            write(slot + 1, key, entry);
+        }
+    }
+
+    // La clé est stockée XOR les données : une entrée à moitié écrite par un autre
+    // thread ne correspond plus à sa clé et est ignorée par probe.
+    private void write(int slot, long key, long entry) {
+        keys[slot] = key ^ entry;
+        data[slot] = entry;
+    }
+
+    /*
+     * Encodage des données : bits 0-31 score, 32-38 coup + 1, 39-46 profondeur,
+     * 47-48 borne, 49-56 génération, 57 entrée valide.
+     */
+    private long pack(int depth, int bound, int score, int move) {
+        return (score & 0xFFFFFFFFL)
+                | ((long) (move + 1) << 32)
+                | ((long) Math.min(depth, 255) << 39)
+                | ((long) bound << 47)
+                | ((long) generation << 49)
+                | (1L << 57);
+    }
+
+    public static int score(long entry) {
+        return (int) entry;
+    }
+
+    public static int move(long entry) {
+        return (int) ((entry >>> 32) & 0x7F) - 1;
+    }
+
+    public static int depth(long entry) {
+        return (int) ((entry >>> 39) & 0xFF);
+    }
+
+    public static int bound(long entry) {
+        return (int) ((entry >>> 47) & 0x3);
+    }
+
+    private static int generation(long entry) {
+        return (int) ((entry >>> 49) & 0xFF);
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.SplittableRandom;
+
+/**
+ * ZOBRIST
+ *
+ * Clés aléatoires pour le hachage des positions. La clé d'une position combine :
+ * - une clé par pièce posée (maintenue de façon incrémentale par PackedBoard),
+ * - une clé pour le joueur qui doit jouer,
+ * - une clé pour le plateau imposé par le dernier coup (ou « partout »).
+ *
+ * La graine est fixe pour que les clés soient identiques d'une exécution à l'autre.
+ */
+public class Zobrist {
+
+    private static final long SEED = 0x4C4F47333230L; // "LOG320"
+
+    private static final long[] X_KEYS = new long[81];
+    private static final long[] O_KEYS = new long[81];
+    private static final long O_TO_MOVE;
+    // Indice 0 à 8 : plateau imposé, indice 9 : le joueur peut jouer partout
+    private static final long[] FORCED_KEYS = new long[10];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int cell = 0; cell < 81; cell++) {
+            X_KEYS[cell] = random.nextLong();
+            O_KEYS[cell] = random.nextLong();
+        }
+        O_TO_MOVE = random.nextLong();
+        for (int i = 0; i < FORCED_KEYS.length; i++) {
+            FORCED_KEYS[i] = random.nextLong();
+        }
+    }
+
+    // Clé d'une pièce posée sur une case.
+    public static long pieceKey(int cell, int mark) {
+        return (mark == LocalBoard.X) ? X_KEYS[cell] : O_KEYS[cell];
+    }
+
+    // Clé complète d'une position : pièces, joueur qui doit jouer et plateau imposé.
+    public static long positionKey(PackedBoard board, int sideToMove, int lastMove) {
+        return board.getHash() ^ stateKey(sideToMove, board.forcedBoard(lastMove));
+    }
+
+    // Partie de la clé qui ne dépend pas des pièces. `forcedBoard` vaut -1 quand le
+    // joueur peut jouer partout.
+    public static long stateKey(int sideToMove, int forcedBoard) {
+        long key = FORCED_KEYS[forcedBoard < 0 ? 9 : forcedBoard];
+        return (sideToMove == LocalBoard.O) ? key ^ O_TO_MOVE : key;
+    }
+}